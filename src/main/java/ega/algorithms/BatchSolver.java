@@ -0,0 +1,214 @@
+package ega.algorithms;
+
+import ega.core.Graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Solves many independent max-flow instances concurrently, for throughput rather than single-solve latency.
+ *
+ * <p>Every {@link Job} is solved by one task on an executor:
+ * <ul>
+ *   <li>{@link Mode#PLATFORM_THREADS} (default): a fixed pool of {@link #setThreads(int)} platform threads.</li>
+ *   <li>{@link Mode#VIRTUAL_THREADS}: one virtual thread per job. Max-flow is CPU-bound, so this does not beat
+ *       the platform pool; it is meant for callers that already schedule their work on virtual threads.</li>
+ *   <li>A caller-supplied executor ({@link #setExecutor(ExecutorService)}), which is not shut down here.</li>
+ * </ul>
+ * Executors created here live for one {@link #submit} call and are shut down once its jobs are queued.
+ *
+ * <p>Solver instances are reused: a task borrows an idle instance from a shared pool (or creates one with the
+ * factory), solves its job and returns the instance. At most one instance per concurrently running task is
+ * alive at a time, so solvers that keep their scratch arrays between calls (such as {@link EdmondsKarp})
+ * allocate only once per worker. An instance whose {@code maxFlow} threw is discarded instead of returned, as
+ * its scratch state may be inconsistent; the next task creates a fresh one. A pool of instances is used instead
+ * of a {@code ThreadLocal} because with virtual threads every job runs on a fresh thread.
+ *
+ * <p>Each job's graph is modified in place, as with the solvers themselves; jobs must not share a graph.
+ */
+public class BatchSolver {
+
+    /**
+     * A max-flow solver instance; used by one task at a time.
+     */
+    @FunctionalInterface
+    public interface Solver {
+        long maxFlow(Graph g, int s, int t);
+    }
+
+    /**
+     * Executor used when none is supplied via {@link #setExecutor(ExecutorService)}.
+     */
+    public enum Mode {
+        /** Fixed pool of platform threads (see {@link #setThreads(int)}). */
+        PLATFORM_THREADS,
+        /** One virtual thread per job. */
+        VIRTUAL_THREADS
+    }
+
+    /**
+     * One max-flow query.
+     */
+    public static class Job {
+        public final Graph graph;
+        public final int s;
+        public final int t;
+
+        public Job(Graph graph, int s, int t) {
+            if (graph == null) throw new IllegalArgumentException("graph must not be null.");
+            this.graph = graph;
+            this.s = s;
+            this.t = t;
+        }
+    }
+
+    /**
+     * Outcome of one {@link Job}.
+     */
+    public static class Result {
+        /** The solved job; its graph holds the final residual network. */
+        public final Job job;
+
+        /** Maximum s-t flow value. */
+        public final long flow;
+
+        /** Wall-clock time of the solve, in nanoseconds. */
+        public final long nanos;
+
+        public Result(Job job, long flow, long nanos) {
+            this.job = job;
+            this.flow = flow;
+            this.nanos = nanos;
+        }
+    }
+
+    /** Creates solver instances on demand. */
+    private final Supplier<? extends Solver> factory;
+
+    /** Idle solver instances, shared by all tasks. */
+    private final ConcurrentLinkedQueue<Solver> idle = new ConcurrentLinkedQueue<>();
+
+    private Mode mode = Mode.PLATFORM_THREADS;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /** Caller-supplied executor, or null to create one per {@link #submit} call. */
+    private ExecutorService executor;
+
+    /**
+     * Creates a batch solver using {@link EdmondsKarp}, whose BFS workspace is reused across solves; a good
+     * fit for many small instances.
+     */
+    public BatchSolver() {
+        this(() -> new EdmondsKarp()::maxFlow);
+    }
+
+    /**
+     * Creates a batch solver with a custom solver factory, e.g. {@code () -> new Dinic()::maxFlow}.
+     *
+     * @param factory creates a new solver instance; called when no idle instance is available, i.e. at most once
+     *                per concurrently running task plus once per solve that threw
+     */
+    public BatchSolver(Supplier<? extends Solver> factory) {
+        if (factory == null) throw new IllegalArgumentException("factory must not be null.");
+        this.factory = factory;
+    }
+
+    /**
+     * Sets the kind of executor created per {@link #submit} call (default {@link Mode#PLATFORM_THREADS}).
+     */
+    public void setMode(Mode mode) {
+        if (mode == null) throw new IllegalArgumentException("mode must not be null.");
+        this.mode = mode;
+    }
+
+    /**
+     * Sets the number of platform threads (default: number of available processors).
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1.");
+        this.threads = threads;
+    }
+
+    /**
+     * Runs all jobs on {@code executor} instead of creating one per call (null restores the default). The
+     * executor stays owned by the caller.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Starts solving all jobs and returns one future per job, in job order. A job whose solver throws
+     * completes exceptionally; the other jobs are not affected. If the executor rejects a job (e.g. a
+     * caller-supplied executor that was shut down), that job and all jobs after it complete exceptionally with
+     * the {@link RejectedExecutionException}; jobs queued before keep running.
+     *
+     * @param jobs independent max-flow queries
+     * @return futures of the results, in the iteration order of {@code jobs}
+     */
+    public List<CompletableFuture<Result>> submit(Collection<Job> jobs) {
+        ExecutorService exec = executor;
+        boolean owned = exec == null;
+        if (owned) {
+            exec = mode == Mode.VIRTUAL_THREADS
+                    ? Executors.newVirtualThreadPerTaskExecutor()
+                    : Executors.newFixedThreadPool(Math.min(threads, Math.max(1, jobs.size())));
+        }
+
+        List<CompletableFuture<Result>> futures = new ArrayList<>(jobs.size());
+        try {
+            RejectedExecutionException rejected = null;
+            for (Job job : jobs) {
+                if (rejected == null) {
+                    try {
+                        futures.add(CompletableFuture.supplyAsync(() -> solve(job), exec));
+                        continue;
+                    } catch (RejectedExecutionException ex) {
+                        rejected = ex;
+                    }
+                }
+                futures.add(CompletableFuture.failedFuture(rejected));
+            }
+        } finally {
+            // Already queued jobs still run; the threads end once the queue is drained.
+            if (owned) exec.shutdown();
+        }
+        return futures;
+    }
+
+    /**
+     * Solves all jobs and waits for them.
+     *
+     * @param jobs independent max-flow queries
+     * @return results in the iteration order of {@code jobs}
+     * @throws java.util.concurrent.CompletionException if a solver threw
+     */
+    public List<Result> solveAll(Collection<Job> jobs) {
+        List<CompletableFuture<Result>> futures = submit(jobs);
+        List<Result> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<Result> f : futures) results.add(f.join());
+        return results;
+    }
+
+    /**
+     * Solves one job with a borrowed solver instance; the instance is only returned to the pool if the solve
+     * completed normally.
+     */
+    private Result solve(Job job) {
+        Solver solver = idle.poll();
+        if (solver == null) solver = factory.get();
+        long start = System.nanoTime();
+        long flow = solver.maxFlow(job.graph, job.s, job.t);
+        Result result = new Result(job, flow, System.nanoTime() - start);
+        idle.offer(solver);
+        return result;
+    }
+}
@@ -0,0 +1,192 @@
+package ega.algorithms;
+
+import ega.core.Edge;
+import ega.core.Graph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bidirectional breadth-first search for a shortest augmenting path in the residual network of a {@link Graph}
+ * (used by {@link EdmondsKarp} and {@link Dinic} when bidirectional search is enabled).
+ *
+ * <p>A forward search grows from s over residual arcs and a backward search grows from t over residual arcs
+ * entering the visited set. Each step expands one complete BFS layer of the side with the smaller frontier.
+ * The first layer expansion that finds an arc from a forward-visited into a backward-visited vertex determines
+ * the shortest s-t distance (the minimum over all such arcs found in that layer), and the search stops there.
+ * When s and t are close compared to the size of the graph, both searches together visit only a small part
+ * of it.
+ *
+ * <p>Both searches record exact (truncated) BFS distances, so every vertex of every shortest s-t path is
+ * labelled by at least one side; {@link #levels(int[])} turns them into Dinic levels. The workspace is reused
+ * across searches (epoch stamps, no clearing).
+ */
+final class BidirectionalBfs {
+
+    /** Distances from s / to t; valid where the matching stamp equals {@link #epoch}. */
+    private int[] distF = new int[0], distB = new int[0];
+
+    /** Visit stamps of the forward / backward search. */
+    private int[] seenF = new int[0], seenB = new int[0];
+
+    /** Forward tree: predecessor and the index of the arc in {@code adj(prevNode[v])} used to enter v. */
+    private int[] prevNode = new int[0], prevEdge = new int[0];
+
+    /** Backward tree: successor towards t and the index of the arc in {@code adj(v)} leading to it. */
+    private int[] nextNode = new int[0], nextEdge = new int[0];
+
+    private int[] queueF = new int[0], queueB = new int[0];
+
+    /** Stamp of the current search. */
+    private int epoch = 0;
+
+    /** Arc {@code adj(meetTail).get(meetArc)} joins the two trees on the shortest path found. */
+    private int meetTail, meetArc;
+
+    /** Length (in arcs) of the shortest path found. */
+    private int length;
+
+    /**
+     * Searches for a shortest s-t path over residual arcs with {@code cap >= minCap}.
+     *
+     * @return {@code true} iff t is reachable from s
+     */
+    boolean search(Graph g, int s, int t, long minCap) {
+        final int n = g.size();
+        ensureWorkspace(n);
+        final int stamp = nextEpoch();
+
+        seenF[s] = stamp;
+        distF[s] = 0;
+        queueF[0] = s;
+        int fHead = 0, fTail = 1;
+
+        seenB[t] = stamp;
+        distB[t] = 0;
+        queueB[0] = t;
+        int bHead = 0, bTail = 1;
+
+        int best = Integer.MAX_VALUE;
+        while (fHead < fTail && bHead < bTail) {
+            if (fTail - fHead <= bTail - bHead) {
+                // Expand one forward layer.
+                final int layerEnd = fTail;
+                while (fHead < layerEnd) {
+                    int u = queueF[fHead++];
+                    List<Edge> adj = g.adj(u);
+                    for (int i = 0; i < adj.size(); i++) {
+                        Edge e = adj.get(i);
+                        if (e.cap < minCap) continue;
+                        int v = e.to;
+                        if (seenB[v] == stamp && distF[u] + 1 + distB[v] < best) {
+                            best = distF[u] + 1 + distB[v];
+                            meetTail = u;
+                            meetArc = i;
+                        }
+                        if (seenF[v] != stamp) {
+                            seenF[v] = stamp;
+                            distF[v] = distF[u] + 1;
+                            prevNode[v] = u;
+                            prevEdge[v] = i;
+                            queueF[fTail++] = v;
+                        }
+                    }
+                }
+            } else {
+                // Expand one backward layer: arcs v -> w with residual capacity.
+                final int layerEnd = bTail;
+                while (bHead < layerEnd) {
+                    int w = queueB[bHead++];
+                    for (Edge e : g.adj(w)) {
+                        int v = e.to;
+                        if (g.adj(v).get(e.rev).cap < minCap) continue;
+                        if (seenF[v] == stamp && distF[v] + 1 + distB[w] < best) {
+                            best = distF[v] + 1 + distB[w];
+                            meetTail = v;
+                            meetArc = e.rev;
+                        }
+                        if (seenB[v] != stamp) {
+                            seenB[v] = stamp;
+                            distB[v] = distB[w] + 1;
+                            nextNode[v] = w;
+                            nextEdge[v] = e.rev;
+                            queueB[bTail++] = v;
+                        }
+                    }
+                }
+            }
+            if (best != Integer.MAX_VALUE) {
+                length = best;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * After a successful {@link #search}: writes the path into {@code nodes[0..k]} (s to t) and the arc used to
+     * leave {@code nodes[i]} into {@code arcs[i]} (index in {@code adj(nodes[i])}); both arrays need k+1 slots.
+     *
+     * @return number of arcs k (the shortest s-t distance)
+     */
+    int path(Graph g, int s, int t, int[] nodes, int[] arcs) {
+        // Forward tree: s .. meetTail.
+        int i = distF[meetTail];
+        for (int v = meetTail; v != s; v = prevNode[v]) {
+            nodes[i] = v;
+            arcs[i - 1] = prevEdge[v];
+            i--;
+        }
+        nodes[0] = s;
+
+        // Joining arc, then the backward tree: meetHead .. t.
+        i = distF[meetTail];
+        arcs[i] = meetArc;
+        int v = g.adj(meetTail).get(meetArc).to;
+        nodes[++i] = v;
+        while (v != t) {
+            arcs[i] = nextEdge[v];
+            v = nextNode[v];
+            nodes[++i] = v;
+        }
+        return i;
+    }
+
+    /**
+     * After a successful {@link #search}: writes Dinic levels, i.e. the distance from s for forward-visited
+     * vertices and {@code length - distance to t} for backward-only vertices (both agree on every shortest
+     * path), and -1 for unvisited vertices.
+     */
+    void levels(int[] level) {
+        final int stamp = epoch;
+        for (int v = 0; v < level.length; v++) {
+            if (seenF[v] == stamp) level[v] = distF[v];
+            else if (seenB[v] == stamp) level[v] = length - distB[v];
+            else level[v] = -1;
+        }
+    }
+
+    private void ensureWorkspace(int n) {
+        if (seenF.length >= n) return;
+        distF = new int[n];
+        distB = new int[n];
+        seenF = new int[n];
+        seenB = new int[n];
+        prevNode = new int[n];
+        prevEdge = new int[n];
+        nextNode = new int[n];
+        nextEdge = new int[n];
+        queueF = new int[n];
+        queueB = new int[n];
+        epoch = 0;
+    }
+
+    private int nextEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(seenF, 0);
+            Arrays.fill(seenB, 0);
+            epoch = 1;
+        }
+        return epoch;
+    }
+}
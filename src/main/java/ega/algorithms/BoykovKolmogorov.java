@@ -0,0 +1,525 @@
+package ega.algorithms;
+
+import ega.core.Edge;
+import ega.core.Graph;
+import ega.core.GridGraph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boykov–Kolmogorov max-flow algorithm, designed for vision-style graphs (grids with terminal links).
+ *
+ * <p>Two search trees are grown: S from the source over residual arcs leaving the tree, and T from the sink over
+ * residual arcs entering it. Each iteration has three stages:
+ * <ol>
+ *   <li><b>Growth</b>: active vertices (tree boundary, FIFO) acquire free neighbours until an arc connects an
+ *       S vertex to a T vertex, which closes an augmenting path.</li>
+ *   <li><b>Augmentation</b>: the bottleneck is pushed along the path; every tree arc that saturates turns its
+ *       child into an <b>orphan</b>.</li>
+ *   <li><b>Adoption</b>: each orphan looks for a new parent in its own tree whose path still ends at the
+ *       terminal (preferring the shortest one, using the timestamp/distance marks of the original paper);
+ *       if none exists it becomes free, its children become orphans, and its tree neighbours become active.</li>
+ * </ol>
+ * The trees are reused across iterations instead of being rebuilt, which is why BK beats BFS-based methods on
+ * graphs with many short paths. It terminates when no active vertex is left; the S tree is then exactly the set
+ * of vertices reachable from s, i.e. the source side of a minimum cut ({@link #inSourceSet(int)}).
+ *
+ * <p>Two representations are supported: {@link #maxFlow(Graph, int, int)} on the adjacency-list {@link Graph}
+ * (tree parents are stored as edge indices), and {@link #maxFlow(GridGraph)} on a {@link GridGraph} with implicit
+ * neighbours and implicit terminals (tree parents are stored as directions).
+ */
+public class BoykovKolmogorov {
+
+    private static final byte FREE = 0, SOURCE = 1, SINK = 2;
+
+    /** Parent marker: attached directly to the terminal (or the terminal itself). */
+    private static final int TERMINAL = -1;
+
+    /** Parent marker: parent arc saturated, waiting for adoption. */
+    private static final int ORPHAN = -2;
+
+    /** Parent marker: free vertex. */
+    private static final int NONE = -3;
+
+    /** Tree membership per vertex (FREE, SOURCE or SINK). */
+    private byte[] tree;
+
+    /** Parent arc per vertex (edge index in {@code adj(v)} / direction), or TERMINAL, ORPHAN, NONE. */
+    private int[] parent;
+
+    /** Timestamp and distance-to-terminal marks for the adoption heuristic. */
+    private int[] ts, dist;
+    private int time;
+
+    /** FIFO ring of active vertices; a vertex is queued at most once ({@code active[v]}). */
+    private int[] activeQ;
+    private boolean[] active;
+    private int aHead, aSize;
+
+    /**
+     * Growth position per active vertex ({@link Graph} variant): arcs before it were already handled, so a
+     * high-degree vertex that stays at the queue front is not rescanned after every augmentation. Reset to 0
+     * whenever the vertex is (re)activated.
+     */
+    private int[] scan;
+
+    /** FIFO ring of orphans; a vertex is queued at most once (its parent is ORPHAN while queued). */
+    private int[] orphanQ;
+    private int oHead, oSize;
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t}.
+     *
+     * @param g residual network representation (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(Graph g, int s, int t) {
+        if (s == t) return 0L;
+        init(g.size());
+
+        tree[s] = SOURCE;
+        tree[t] = SINK;
+        parent[s] = parent[t] = TERMINAL;
+        activate(s);
+        activate(t);
+
+        long flow = 0L;
+        while (true) {
+            // Growth: find an arc p -> q from the S tree into the T tree.
+            int meetP = -1, meetEdge = -1;
+            while (aSize > 0) {
+                int p = activeQ[aHead];
+                if (tree[p] != FREE) {
+                    List<Edge> adj = g.adj(p);
+                    for (int i = scan[p]; i < adj.size(); i++) {
+                        Edge e = adj.get(i);
+                        int q = e.to;
+                        if (tree[p] == SOURCE) {
+                            if (e.cap <= 0) continue;
+                            if (tree[q] == SINK) {
+                                meetP = p;
+                                meetEdge = i;
+                            }
+                        } else {
+                            if (g.adj(q).get(e.rev).cap <= 0) continue;
+                            if (tree[q] == SOURCE) {
+                                meetP = q;
+                                meetEdge = e.rev;
+                            }
+                        }
+                        if (meetP >= 0) {
+                            scan[p] = i; // re-examine this arc after the augmentation
+                            break;
+                        }
+                        grow(p, q, e.rev);
+                    }
+                    if (meetP >= 0) break;
+                }
+                popActive();
+            }
+            if (meetP < 0) break;
+
+            time++;
+            flow += augment(g, meetP, meetEdge);
+
+            // Adoption.
+            while (oSize > 0) {
+                int o = orphanQ[oHead];
+                oHead = (oHead + 1) % orphanQ.length;
+                oSize--;
+                adopt(g, o);
+            }
+        }
+        return flow;
+    }
+
+    /**
+     * After a {@code maxFlow} call: whether {@code v} is on the source side of the minimum cut (for a
+     * {@link GridGraph}: pixel {@code v} is labelled "source"/foreground).
+     */
+    public boolean inSourceSet(int v) {
+        return tree[v] == SOURCE;
+    }
+
+    /**
+     * Growth step from p to q, where q is reached over a residual tree-direction arc and {@code qToP} is the
+     * parent-arc id to store at q. Free q joins p's tree; a tree neighbour may be re-parented if p gives it a
+     * shorter, fresher path to the terminal.
+     */
+    private void grow(int p, int q, int qToP) {
+        if (tree[q] == FREE) {
+            tree[q] = tree[p];
+            parent[q] = qToP;
+            ts[q] = ts[p];
+            dist[q] = dist[p] + 1;
+            activate(q);
+        } else if (tree[q] == tree[p] && ts[q] <= ts[p] && dist[q] > dist[p]) {
+            parent[q] = qToP;
+            ts[q] = ts[p];
+            dist[q] = dist[p] + 1;
+        }
+    }
+
+    /**
+     * Pushes the bottleneck along s ~> p -> q ~> t (p = {@code meetP}, arc {@code adj(p).get(meetEdge)}) and
+     * queues the children of saturated tree arcs as orphans.
+     */
+    private long augment(Graph g, int meetP, int meetEdge) {
+        Edge bridge = g.adj(meetP).get(meetEdge);
+
+        long delta = bridge.cap;
+        for (int v = meetP; parent[v] != TERMINAL; ) {
+            Edge up = g.adj(v).get(parent[v]);
+            delta = Math.min(delta, g.adj(up.to).get(up.rev).cap);
+            v = up.to;
+        }
+        for (int v = bridge.to; parent[v] != TERMINAL; ) {
+            Edge up = g.adj(v).get(parent[v]);
+            delta = Math.min(delta, up.cap);
+            v = up.to;
+        }
+
+        push(g, bridge, delta);
+        for (int v = meetP; parent[v] != TERMINAL; ) {
+            Edge up = g.adj(v).get(parent[v]);
+            int u = up.to;
+            Edge down = g.adj(u).get(up.rev); // tree arc u -> v
+            push(g, down, delta);
+            if (down.cap == 0) makeOrphan(v);
+            v = u;
+        }
+        for (int v = bridge.to; parent[v] != TERMINAL; ) {
+            Edge up = g.adj(v).get(parent[v]); // tree arc v -> u
+            int u = up.to;
+            push(g, up, delta);
+            if (up.cap == 0) makeOrphan(v);
+            v = u;
+        }
+        return delta;
+    }
+
+    /**
+     * Adoption of orphan {@code o}: attach it to the closest valid parent of its tree, or free it.
+     */
+    private void adopt(Graph g, int o) {
+        final byte side = tree[o];
+        List<Edge> adj = g.adj(o);
+
+        int best = NONE;
+        int bestDist = Integer.MAX_VALUE;
+        for (int i = 0; i < adj.size(); i++) {
+            Edge e = adj.get(i);
+            int q = e.to;
+            if (tree[q] != side) continue;
+            long c = (side == SOURCE) ? g.adj(q).get(e.rev).cap : e.cap;
+            if (c <= 0) continue;
+
+            // Check that q's path ends at the terminal (and not at an orphan).
+            int d = 0;
+            int j = q;
+            while (true) {
+                if (ts[j] == time) {
+                    d += dist[j];
+                    break;
+                }
+                int a = parent[j];
+                d++;
+                if (a == TERMINAL) {
+                    ts[j] = time;
+                    dist[j] = 1;
+                    break;
+                }
+                if (a == ORPHAN) {
+                    d = Integer.MAX_VALUE;
+                    break;
+                }
+                j = g.adj(j).get(a).to;
+            }
+            if (d == Integer.MAX_VALUE) continue;
+
+            if (d < bestDist) {
+                best = i;
+                bestDist = d;
+            }
+            // Mark the verified path so later checks stop early.
+            for (j = q; ts[j] != time; j = g.adj(j).get(parent[j]).to) {
+                ts[j] = time;
+                dist[j] = d--;
+            }
+        }
+
+        if (best != NONE) {
+            parent[o] = best;
+            ts[o] = time;
+            dist[o] = bestDist + 1;
+            return;
+        }
+
+        // No parent: o becomes free; its children become orphans, residual tree neighbours become active.
+        tree[o] = FREE;
+        parent[o] = NONE;
+        for (Edge e : adj) {
+            int q = e.to;
+            if (tree[q] != side) continue;
+            long c = (side == SOURCE) ? g.adj(q).get(e.rev).cap : e.cap;
+            if (c > 0) activate(q);
+            int a = parent[q];
+            if (a >= 0 && g.adj(q).get(a).to == o) makeOrphan(q);
+        }
+    }
+
+    /** Pushes {@code delta} along arc {@code e} and updates its reverse arc. */
+    private static void push(Graph g, Edge e, long delta) {
+        Edge rev = g.adj(e.to).get(e.rev);
+        e.cap -= delta;
+        e.flow += delta;
+        rev.cap += delta;
+        rev.flow -= delta;
+    }
+
+    /* ===================== Grid variant (GridGraph) ===================== */
+
+    /**
+     * Computes the maximum flow between the implicit terminals of a {@link GridGraph}.
+     *
+     * <p>Same algorithm as {@link #maxFlow(Graph, int, int)}. Every pixel first sends {@code min(sourceCap,
+     * sinkCap)} straight from s to t; pixels with remaining source (sink) capacity then form the initial S (T)
+     * tree, attached directly to the terminal. Tree parents are directions, so the solver needs no arc indices.
+     *
+     * @param g grid residual network (modified in-place)
+     * @return maximum flow value
+     */
+    public long maxFlow(GridGraph g) {
+        final int n = g.size();
+        final long[] src = g.sourceCap();
+        final long[] snk = g.sinkCap();
+        init(n);
+
+        long flow = 0L;
+        for (int p = 0; p < n; p++) {
+            long direct = Math.min(src[p], snk[p]);
+            flow += direct;
+            src[p] -= direct;
+            snk[p] -= direct;
+            if (src[p] > 0) {
+                tree[p] = SOURCE;
+            } else if (snk[p] > 0) {
+                tree[p] = SINK;
+            } else {
+                continue;
+            }
+            parent[p] = TERMINAL;
+            dist[p] = 1;
+            activate(p);
+        }
+
+        final int width = g.width(), height = g.height(), degree = g.degree();
+        final long[] cap = g.cap();
+
+        while (true) {
+            int meetP = -1, meetDir = -1;
+            while (aSize > 0) {
+                int p = activeQ[aHead];
+                if (tree[p] != FREE) {
+                    final int x = p % width, y = p / width;
+                    for (int d = 0; d < degree; d++) {
+                        int nx = x + GridGraph.DX[d], ny = y + GridGraph.DY[d];
+                        if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+                        int q = ny * width + nx;
+                        if (tree[p] == SOURCE) {
+                            if (cap[p * degree + d] <= 0) continue;
+                            if (tree[q] == SINK) {
+                                meetP = p;
+                                meetDir = d;
+                                break;
+                            }
+                        } else {
+                            if (cap[q * degree + (d ^ 1)] <= 0) continue;
+                            if (tree[q] == SOURCE) {
+                                meetP = q;
+                                meetDir = d ^ 1;
+                                break;
+                            }
+                        }
+                        grow(p, q, d ^ 1);
+                    }
+                    if (meetP >= 0) break;
+                }
+                popActive();
+            }
+            if (meetP < 0) break;
+
+            time++;
+            flow += augment(g, meetP, meetDir);
+
+            while (oSize > 0) {
+                int o = orphanQ[oHead];
+                oHead = (oHead + 1) % orphanQ.length;
+                oSize--;
+                adopt(g, o);
+            }
+        }
+        return flow;
+    }
+
+    /**
+     * {@link #augment(Graph, int, int)} on a grid; the path ends in t-links at both ends.
+     */
+    private long augment(GridGraph g, int meetP, int meetDir) {
+        final int degree = g.degree();
+        final long[] cap = g.cap();
+        final int meetQ = g.neighbour(meetP, meetDir);
+
+        long delta = cap[meetP * degree + meetDir];
+        int v = meetP;
+        for (; parent[v] != TERMINAL; ) {
+            int d = parent[v];
+            int u = g.neighbour(v, d);
+            delta = Math.min(delta, cap[u * degree + (d ^ 1)]);
+            v = u;
+        }
+        delta = Math.min(delta, g.sourceCap()[v]);
+        v = meetQ;
+        for (; parent[v] != TERMINAL; ) {
+            int d = parent[v];
+            delta = Math.min(delta, cap[v * degree + d]);
+            v = g.neighbour(v, d);
+        }
+        delta = Math.min(delta, g.sinkCap()[v]);
+
+        cap[meetP * degree + meetDir] -= delta;
+        cap[meetQ * degree + (meetDir ^ 1)] += delta;
+
+        for (v = meetP; ; ) {
+            int d = parent[v];
+            if (d == TERMINAL) {
+                if ((g.sourceCap()[v] -= delta) == 0) makeOrphan(v);
+                break;
+            }
+            int u = g.neighbour(v, d);
+            cap[v * degree + d] += delta;
+            if ((cap[u * degree + (d ^ 1)] -= delta) == 0) makeOrphan(v);
+            v = u;
+        }
+        for (v = meetQ; ; ) {
+            int d = parent[v];
+            if (d == TERMINAL) {
+                if ((g.sinkCap()[v] -= delta) == 0) makeOrphan(v);
+                break;
+            }
+            int u = g.neighbour(v, d);
+            cap[u * degree + (d ^ 1)] += delta;
+            if ((cap[v * degree + d] -= delta) == 0) makeOrphan(v);
+            v = u;
+        }
+        return delta;
+    }
+
+    /**
+     * {@link #adopt(Graph, int)} on a grid.
+     */
+    private void adopt(GridGraph g, int o) {
+        final byte side = tree[o];
+        final int width = g.width(), height = g.height(), degree = g.degree();
+        final long[] cap = g.cap();
+        final int x = o % width, y = o / width;
+
+        int best = NONE;
+        int bestDist = Integer.MAX_VALUE;
+        for (int d = 0; d < degree; d++) {
+            int nx = x + GridGraph.DX[d], ny = y + GridGraph.DY[d];
+            if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+            int q = ny * width + nx;
+            if (tree[q] != side) continue;
+            long c = (side == SOURCE) ? cap[q * degree + (d ^ 1)] : cap[o * degree + d];
+            if (c <= 0) continue;
+
+            int dd = 0;
+            int j = q;
+            while (true) {
+                if (ts[j] == time) {
+                    dd += dist[j];
+                    break;
+                }
+                int a = parent[j];
+                dd++;
+                if (a == TERMINAL) {
+                    ts[j] = time;
+                    dist[j] = 1;
+                    break;
+                }
+                if (a == ORPHAN) {
+                    dd = Integer.MAX_VALUE;
+                    break;
+                }
+                j = g.neighbour(j, a);
+            }
+            if (dd == Integer.MAX_VALUE) continue;
+
+            if (dd < bestDist) {
+                best = d;
+                bestDist = dd;
+            }
+            for (j = q; ts[j] != time; j = g.neighbour(j, parent[j])) {
+                ts[j] = time;
+                dist[j] = dd--;
+            }
+        }
+
+        if (best != NONE) {
+            parent[o] = best;
+            ts[o] = time;
+            dist[o] = bestDist + 1;
+            return;
+        }
+
+        tree[o] = FREE;
+        parent[o] = NONE;
+        for (int d = 0; d < degree; d++) {
+            int nx = x + GridGraph.DX[d], ny = y + GridGraph.DY[d];
+            if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+            int q = ny * width + nx;
+            if (tree[q] != side) continue;
+            long c = (side == SOURCE) ? cap[q * degree + (d ^ 1)] : cap[o * degree + d];
+            if (c > 0) activate(q);
+            if (parent[q] == (d ^ 1)) makeOrphan(q);
+        }
+    }
+
+    /* ===================== Shared bookkeeping ===================== */
+
+    private void init(int n) {
+        tree = new byte[n];
+        parent = new int[n];
+        ts = new int[n];
+        dist = new int[n];
+        time = 0;
+        activeQ = new int[n];
+        active = new boolean[n];
+        orphanQ = new int[n];
+        scan = new int[n];
+        aHead = aSize = oHead = oSize = 0;
+        Arrays.fill(parent, NONE);
+    }
+
+    private void activate(int v) {
+        scan[v] = 0;
+        if (active[v]) return;
+        active[v] = true;
+        activeQ[(aHead + aSize++) % activeQ.length] = v;
+    }
+
+    private void popActive() {
+        active[activeQ[aHead]] = false;
+        aHead = (aHead + 1) % activeQ.length;
+        aSize--;
+    }
+
+    private void makeOrphan(int v) {
+        parent[v] = ORPHAN;
+        orphanQ[(oHead + oSize++) % orphanQ.length] = v;
+    }
+}
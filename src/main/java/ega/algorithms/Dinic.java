@@ -1,14 +1,16 @@
 package ega.algorithms;
 
+import ega.core.CsrGraph;
 import ega.core.Edge;
 import ega.core.Graph;
+import ega.core.OffHeapGraph;
 import ega.gui.vis.*;
 
 import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Dinic's algorithm for the maximum s-t flow problem.
@@ -24,12 +26,74 @@ import java.util.Queue;
  * <p>High-level structure:
  * <ol>
  *   <li>Build a level graph with BFS on the residual network.</li>
- *   <li>On that level graph, repeatedly send blocking flows using DFS with the current-arc optimization.</li>
+ *   <li>On that level graph, repeatedly send blocking flows using DFS with the current-arc optimization.
+ *       The DFS keeps its path in an explicit {@code int[]} stack (no recursion), so arbitrarily deep level
+ *       graphs run with the default thread stack size.</li>
  *   <li>Repeat until the sink is unreachable in the residual network.</li>
  * </ol>
+ *
+ * <p>Optional capacity scaling ({@link #setCapacityScaling(boolean)}): level graph and blocking flow only use
+ * residual arcs with {@code cap >= delta}; once t is unreachable at the current {@code delta} it is halved,
+ * down to 1 (the plain algorithm). This bounds the number of phases by O(m log U).
+ *
+ * <p>Optional parallel level graphs ({@link #setThreads(int)}): on graphs with at least
+ * {@link ParallelLevelBfs#MIN_VERTICES} vertices the BFS of each phase runs level-synchronously on a
+ * {@link ForkJoinPool}, switching between top-down and bottom-up layer expansion. The blocking flow stays serial.
  */
 public class Dinic {
 
+    /** Whether {@link #maxFlow(Graph, int, int)} uses capacity scaling. */
+    private boolean capacityScaling = false;
+
+    /** Whether {@link #maxFlow(Graph, int, int)} builds level graphs by bidirectional search. */
+    private boolean bidirectionalSearch = false;
+
+    /** Bidirectional search workspace (created on first use). */
+    private BidirectionalBfs bidirectionalBfs;
+
+    /** Number of threads for level-graph construction; 1 keeps the serial BFS. */
+    private int threads = 1;
+
+    /** Parallel BFS of the running {@code maxFlow} call, or null if the serial BFS is used. */
+    private ParallelLevelBfs parallelBfs;
+
+    /**
+     * Enables capacity scaling in {@link #maxFlow(Graph, int, int)} (default off). {@code delta} starts at the
+     * largest power of two not exceeding the maximum capacity out of s.
+     */
+    public void setCapacityScaling(boolean enable) {
+        this.capacityScaling = enable;
+    }
+
+    /**
+     * Enables bidirectional level-graph construction in {@link #maxFlow(Graph, int, int)} (default off).
+     *
+     * <p>Instead of a BFS from s over the whole residual network, BFS layers are grown alternately from s and
+     * (over reverse residual arcs) from t until they meet, which fixes the s-t distance D. Vertices reached
+     * from s get their distance as level, vertices reached only from t get D minus their distance to t. Every
+     * shortest path is labelled exactly, so phases behave as in the plain algorithm, but a phase visits only
+     * the vertices near s and t when they are close relative to the size of the graph.
+     */
+    public void setBidirectionalSearch(boolean enable) {
+        this.bidirectionalSearch = enable;
+    }
+
+    /**
+     * Sets the number of threads used to build level graphs in {@link #maxFlow(Graph, int, int)} and
+     * {@link #maxFlow(CsrGraph, int, int)} (default 1, the serial BFS).
+     *
+     * <p>With more than one thread, graphs with at least {@link ParallelLevelBfs#MIN_VERTICES} vertices use a
+     * parallel direction-optimising BFS on a dedicated {@link ForkJoinPool}; smaller graphs stay serial, where
+     * the synchronisation per layer would cost more than it saves. Bidirectional search, if enabled, takes
+     * precedence.
+     *
+     * @param threads number of worker threads (>= 1)
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1.");
+        this.threads = threads;
+    }
+
     /**
      * Computes the maximum flow from {@code s} to {@code t}.
      *
@@ -46,16 +110,26 @@ public class Dinic {
         int[] level = new int[n];
         // ptr[v] = "current arc" pointer for DFS in the current BFS phase.
         int[] ptr = new int[n];
+        // path[0..depth] = vertices of the current DFS path (explicit stack).
+        int[] path = new int[n];
 
-        while (buildLevelGraph(g, s, t, level)) {
-            Arrays.fill(ptr, 0);
+        // Only residual arcs with cap >= delta are used; delta == 1 is the unscaled algorithm.
+        long delta = capacityScaling ? initialDelta(g, s) : 1L;
 
-            // Augment within this level graph until it becomes blocking.
+        ForkJoinPool pool = startParallelBfs(n);
+        try {
             while (true) {
-                long pushed = dfsBlockingFlow(g, s, t, Long.MAX_VALUE / 4, level, ptr);
-                if (pushed == 0) break;
-                flow += pushed;
+                while (nextLevelGraph(g, s, t, level, delta)) {
+                    Arrays.fill(ptr, 0);
+
+                    // Augment within this level graph until it becomes blocking.
+                    flow += blockingFlow(g, s, t, level, ptr, path, delta);
+                }
+                if (delta == 1) break;
+                delta >>= 1;
             }
+        } finally {
+            stopParallelBfs(pool);
         }
         return flow;
     }
@@ -83,8 +157,9 @@ public class Dinic {
 
         int[] level = new int[n];
         int[] ptr = new int[n];
+        int[] path = new int[n];
 
-        while (buildLevelGraph(g, s, t, level)) {
+        while (buildLevelGraph(g, s, t, level, 1L)) {
 
             if (out != null) {
                 int[] copy = Arrays.copyOf(level, level.length);
@@ -96,16 +171,15 @@ public class Dinic {
             Arrays.fill(ptr, 0);
 
             while (true) {
-                ArrayList<Integer> pathStack = new ArrayList<>();
-                long pushed = dfsBlockingFlowVis(g, s, t, Long.MAX_VALUE / 4, level, ptr, pathStack);
+                long pushed = augmentOnePath(g, s, t, level, ptr, path);
 
                 if (pushed == 0) break;
 
                 flow += pushed;
 
                 if (out != null) {
-                    int[] nodes = new int[pathStack.size()];
-                    for (int i = 0; i < nodes.length; i++) nodes[i] = pathStack.get(i);
+                    // An s-t path in the level graph has exactly level[t] arcs.
+                    int[] nodes = Arrays.copyOf(path, level[t] + 1);
 
                     VisFrame pf = new VisFrame();
                     pf.add(new Path(nodes));
@@ -134,16 +208,17 @@ public class Dinic {
     /**
      * Builds the level graph by running BFS on the residual network.
      *
-     * <p>Only edges with strictly positive residual capacity are traversed. The resulting levels satisfy:
+     * <p>Only edges with residual capacity of at least {@code minCap} are traversed. The resulting levels satisfy:
      * {@code level[s] = 0} and for any traversed edge {@code (u -> v)} we set {@code level[v] = level[u] + 1}.
      *
-     * @param g     residual network
-     * @param s     source
-     * @param t     sink
-     * @param level output array; will be filled with BFS levels (unreachable => -1)
+     * @param g      residual network
+     * @param s      source
+     * @param t      sink
+     * @param level  output array; will be filled with BFS levels (unreachable => -1)
+     * @param minCap minimum residual capacity of a traversable edge (1 without scaling)
      * @return {@code true} iff {@code t} is reachable from {@code s} in the residual network
      */
-    private static boolean buildLevelGraph(Graph g, int s, int t, int[] level) {
+    private static boolean buildLevelGraph(Graph g, int s, int t, int[] level, long minCap) {
         Arrays.fill(level, -1);
 
         Queue<Integer> q = new ArrayDeque<>();
@@ -153,7 +228,7 @@ public class Dinic {
         while (!q.isEmpty()) {
             int u = q.poll();
             for (Edge e : g.adj(u)) {
-                if (e.cap > 0 && level[e.to] == -1) {
+                if (e.cap >= minCap && level[e.to] == -1) {
                     level[e.to] = level[u] + 1;
                     q.add(e.to);
                 }
@@ -163,105 +238,176 @@ public class Dinic {
     }
 
     /**
-     * DFS that sends flow in the current level graph (blocking-flow phase).
+     * Builds the level graph of the next phase, by bidirectional search if enabled.
      *
-     * <p>Uses the current-arc optimization via {@code ptr[]} so that, within one BFS phase,
-     * each outgoing edge of each node is considered at most once (amortized).
+     * @return {@code true} iff {@code t} is reachable from {@code s}
+     */
+    private boolean nextLevelGraph(Graph g, int s, int t, int[] level, long minCap) {
+        if (!bidirectionalSearch) {
+            if (parallelBfs != null) return parallelBfs.search(g, s, t, level, minCap);
+            return buildLevelGraph(g, s, t, level, minCap);
+        }
+
+        if (bidirectionalBfs == null) bidirectionalBfs = new BidirectionalBfs();
+        if (!bidirectionalBfs.search(g, s, t, minCap)) return false;
+        bidirectionalBfs.levels(level);
+        return true;
+    }
+
+    /**
+     * Creates the pool and parallel BFS for a graph of {@code n} vertices if {@link #setThreads(int)} asks for
+     * it and the graph is large enough.
+     *
+     * @return the pool to pass to {@link #stopParallelBfs}, or null for the serial BFS
+     */
+    private ForkJoinPool startParallelBfs(int n) {
+        if (threads == 1 || n < ParallelLevelBfs.MIN_VERTICES) return null;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        parallelBfs = new ParallelLevelBfs(pool);
+        return pool;
+    }
+
+    private void stopParallelBfs(ForkJoinPool pool) {
+        parallelBfs = null;
+        if (pool != null) pool.shutdown();
+    }
+
+    /**
+     * Initial scaling threshold: the largest power of two not exceeding the largest residual capacity out of
+     * {@code s} (at least 1).
+     */
+    private static long initialDelta(Graph g, int s) {
+        long maxCap = 0;
+        for (Edge e : g.adj(s)) maxCap = Math.max(maxCap, e.cap);
+        return Math.max(1L, Long.highestOneBit(maxCap));
+    }
+
+    /**
+     * Sends a blocking flow in the current level graph (blocking-flow phase) using an explicit stack.
+     *
+     * <p>{@code path[0..depth]} is the current DFS path starting at {@code s}; the arc used to leave
+     * {@code path[i]} is always its current arc {@code ptr[path[i]]}, so no separate arc stack is needed.
+     * Each step either
+     * <ul>
+     *   <li><b>advances</b> along the current arc of the top vertex if it is admissible
+     *       ({@code cap >= minCap} and one level deeper),</li>
+     *   <li><b>retreats</b> from a top vertex whose arcs are exhausted (it is removed from the level graph
+     *       via {@code level[u] = -1}, and the current arc of its predecessor moves on), or</li>
+     *   <li><b>augments</b> once {@code t} is reached: the path bottleneck is pushed on every arc, and the
+     *       path is cut back to the tail of its first saturated arc (one left with {@code cap < minCap}). The
+     *       prefix before that arc still has residual capacity, so the next advance continues from there
+     *       instead of re-descending from {@code s}.</li>
+     * </ul>
+     * Within one BFS phase each arc is skipped at most once (current-arc optimization), and every augmentation
+     * costs O(path length) for the push plus the re-advance of the discarded suffix.
      *
      * @param g      residual network
-     * @param u      current node
+     * @param s      source
      * @param t      sink
-     * @param pushed upper bound on how much we are allowed to send along the current DFS prefix
      * @param level  BFS levels from {@link #buildLevelGraph}
      * @param ptr    current-arc pointers (modified in-place)
-     * @return amount of flow actually sent; 0 if no augmenting route exists from {@code u} to {@code t}
+     * @param path   scratch stack of length at least {@code level[t] + 1}
+     * @param minCap minimum residual capacity of an admissible arc (1 without scaling)
+     * @return total flow sent in this phase
      */
-    private static long dfsBlockingFlow(Graph g, int u, int t, long pushed, int[] level, int[] ptr) {
-        if (u == t) return pushed;
+    private static long blockingFlow(Graph g, int s, int t, int[] level, int[] ptr, int[] path, long minCap) {
+        long total = 0;
+        int depth = 0;
+        path[0] = s;
 
-        while (ptr[u] < g.adj(u).size()) {
-            Edge e = g.adj(u).get(ptr[u]);
+        while (true) {
+            int u = path[depth];
 
-            // Only follow edges that go "forward" in the level graph and have residual capacity.
-            if (e.cap <= 0 || level[e.to] != level[u] + 1) {
-                ptr[u]++;
+            if (u == t) {
+                total += augment(g, path, depth, ptr);
+
+                // Retreat to the tail of the first saturated arc (there is at least one: the bottleneck).
+                int i = 0;
+                while (g.adj(path[i]).get(ptr[path[i]]).cap >= minCap) i++;
+                depth = i;
                 continue;
             }
 
-            long canPush = dfsBlockingFlow(g, e.to, t, Math.min(pushed, e.cap), level, ptr);
-            if (canPush > 0) {
-                // Update residual capacities and flow values on forward and reverse edges.
-                e.cap -= canPush;
-                e.flow += canPush;
-
-                Edge rev = g.adj(e.to).get(e.rev);
-                rev.cap += canPush;
-                rev.flow -= canPush;
-
-                return canPush;
+            if (advance(g, u, level, ptr, minCap)) {
+                path[depth + 1] = g.adj(u).get(ptr[u]).to;
+                depth++;
+                continue;
             }
 
-            ptr[u]++;
+            // Retreat: u cannot reach t in the current level graph.
+            level[u] = -1;
+            if (depth == 0) return total;
+            depth--;
+            ptr[path[depth]]++;
         }
-
-        // Pruning: u cannot reach t in the current level graph, treat it as unreachable for this BFS phase.
-        level[u] = -1;
-        return 0;
     }
 
     /**
-     * Visualization-friendly variant of {@link #dfsBlockingFlow} that also maintains the current DFS path.
+     * Like {@link #blockingFlow}, but stops after the first augmenting path (and therefore always starts at
+     * {@code s}). On success {@code path} holds the augmented path {@code s .. t} (of length
+     * {@code level[t] + 1}).
      *
-     * <p>{@code pathStack} records the current recursion stack of nodes. On success (sink reached),
-     * it contains the full augmenting path from {@code s} to {@code t}. On failure, it is rolled back
-     * to the state it had when entering the current recursion frame.
+     * @return amount of flow sent; 0 if the level graph is already blocking
      */
-    private static long dfsBlockingFlowVis(Graph g,
-                                           int u,
-                                           int t,
-                                           long pushed,
-                                           int[] level,
-                                           int[] ptr,
-                                           ArrayList<Integer> pathStack) {
-        pathStack.add(u);
-
-        if (u == t) {
-            return pushed;
-        }
+    private static long augmentOnePath(Graph g, int s, int t, int[] level, int[] ptr, int[] path) {
+        int depth = 0;
+        path[0] = s;
 
-        int stackSizeBefore = pathStack.size();
+        while (true) {
+            int u = path[depth];
 
-        while (ptr[u] < g.adj(u).size()) {
-            Edge e = g.adj(u).get(ptr[u]);
+            if (u == t) return augment(g, path, depth, ptr);
 
-            if (e.cap <= 0 || level[e.to] != level[u] + 1) {
-                ptr[u]++;
+            if (advance(g, u, level, ptr, 1L)) {
+                path[depth + 1] = g.adj(u).get(ptr[u]).to;
+                depth++;
                 continue;
             }
 
-            long canPush = dfsBlockingFlowVis(g, e.to, t, Math.min(pushed, e.cap), level, ptr, pathStack);
-            if (canPush > 0) {
-                e.cap -= canPush;
-                e.flow += canPush;
-
-                Edge rev = g.adj(e.to).get(e.rev);
-                rev.cap += canPush;
-                rev.flow -= canPush;
-
-                return canPush;
-            }
+            level[u] = -1;
+            if (depth == 0) return 0;
+            depth--;
+            ptr[path[depth]]++;
+        }
+    }
 
+    /**
+     * Moves {@code ptr[u]} to the first admissible arc of {@code u} (residual capacity of at least
+     * {@code minCap} and one level deeper).
+     *
+     * @return {@code true} if such an arc exists
+     */
+    private static boolean advance(Graph g, int u, int[] level, int[] ptr, long minCap) {
+        List<Edge> adj = g.adj(u);
+        while (ptr[u] < adj.size()) {
+            Edge e = adj.get(ptr[u]);
+            if (e.cap >= minCap && level[e.to] == level[u] + 1) return true;
             ptr[u]++;
-
-            // Roll back any nodes added by the failed recursive attempt.
-            while (pathStack.size() > stackSizeBefore) {
-                pathStack.remove(pathStack.size() - 1);
-            }
         }
+        return false;
+    }
 
-        level[u] = -1;
-        pathStack.remove(pathStack.size() - 1);
-        return 0;
+    /**
+     * Pushes the bottleneck capacity along {@code path[0..depth]} (arcs are the current arcs of the path
+     * vertices) and updates residual capacities and flow values on forward and reverse edges.
+     *
+     * @return amount pushed
+     */
+    private static long augment(Graph g, int[] path, int depth, int[] ptr) {
+        long delta = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            delta = Math.min(delta, g.adj(path[i]).get(ptr[path[i]]).cap);
+        }
+        for (int i = 0; i < depth; i++) {
+            Edge e = g.adj(path[i]).get(ptr[path[i]]);
+            e.cap -= delta;
+            e.flow += delta;
+
+            Edge rev = g.adj(e.to).get(e.rev);
+            rev.cap += delta;
+            rev.flow -= delta;
+        }
+        return delta;
     }
 
     /**
@@ -289,4 +435,213 @@ public class Dinic {
         }
         return vis;
     }
+
+    /* ===================== Array-based variant (CsrGraph) ===================== */
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t} on a {@link CsrGraph}.
+     *
+     * <p>Same algorithm as {@link #maxFlow(Graph, int, int)}, but all arc accesses are flat array reads.
+     * {@code ptr[u]} holds a global arc id in {@code [head[u], head[u+1])} instead of a list index.
+     *
+     * @param g CSR residual network (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(CsrGraph g, int s, int t) {
+        long flow = 0L;
+        final int n = g.size();
+
+        int[] level = new int[n];
+        int[] ptr = new int[n];
+        int[] queue = new int[n];
+        int[] path = new int[n];
+
+        ForkJoinPool pool = startParallelBfs(n);
+        try {
+            while (parallelBfs != null ? parallelBfs.search(g, s, t, level) : buildLevelGraph(g, s, t, level, queue)) {
+                System.arraycopy(g.head(), 0, ptr, 0, n);
+                flow += blockingFlow(g, s, t, level, ptr, path);
+            }
+        } finally {
+            stopParallelBfs(pool);
+        }
+        return flow;
+    }
+
+    /**
+     * {@link #buildLevelGraph(Graph, int, int, int[], long)} on a {@link CsrGraph}, using {@code queue} (length n)
+     * as a plain array FIFO.
+     */
+    private static boolean buildLevelGraph(CsrGraph g, int s, int t, int[] level, int[] queue) {
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final long[] cap = g.cap();
+        Arrays.fill(level, -1);
+
+        int qh = 0, qt = 0;
+        level[s] = 0;
+        queue[qt++] = s;
+
+        while (qh < qt) {
+            int u = queue[qh++];
+            for (int a = head[u]; a < head[u + 1]; a++) {
+                int v = to[a];
+                if (cap[a] > 0 && level[v] == -1) {
+                    level[v] = level[u] + 1;
+                    queue[qt++] = v;
+                }
+            }
+        }
+        return level[t] != -1;
+    }
+
+    /**
+     * {@link #blockingFlow(Graph, int, int, int[], int[], int[], long)} on a {@link CsrGraph}.
+     */
+    private static long blockingFlow(CsrGraph g, int s, int t, int[] level, int[] ptr, int[] path) {
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        final long[] flow = g.flow();
+
+        long total = 0;
+        int depth = 0;
+        path[0] = s;
+
+        while (true) {
+            int u = path[depth];
+
+            if (u == t) {
+                long delta = Long.MAX_VALUE;
+                for (int i = 0; i < depth; i++) delta = Math.min(delta, cap[ptr[path[i]]]);
+                int firstSaturated = -1;
+                for (int i = 0; i < depth; i++) {
+                    int a = ptr[path[i]];
+                    int r = rev[a];
+                    cap[a] -= delta;
+                    flow[a] += delta;
+                    cap[r] += delta;
+                    flow[r] -= delta;
+                    if (firstSaturated < 0 && cap[a] == 0) firstSaturated = i;
+                }
+                total += delta;
+                depth = firstSaturated;
+                continue;
+            }
+
+            // Advance along the first admissible arc, if any.
+            final int end = head[u + 1];
+            final int next = level[u] + 1;
+            int a = ptr[u];
+            while (a < end && (cap[a] <= 0 || level[to[a]] != next)) a++;
+            ptr[u] = a;
+            if (a < end) {
+                path[++depth] = to[a];
+                continue;
+            }
+
+            // Retreat.
+            level[u] = -1;
+            if (depth == 0) return total;
+            depth--;
+            ptr[path[depth]]++;
+        }
+    }
+
+    /* ===================== Off-heap variant (OffHeapGraph) ===================== */
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t} on an {@link OffHeapGraph}.
+     *
+     * <p>Same algorithm as {@link #maxFlow(CsrGraph, int, int)}; per-vertex scratch arrays stay on the heap,
+     * all per-arc data is read and written off-heap.
+     *
+     * @param g off-heap residual network (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(OffHeapGraph g, int s, int t) {
+        long flow = 0L;
+        final int n = g.size();
+
+        int[] level = new int[n];
+        int[] ptr = new int[n];
+        int[] queue = new int[n];
+        int[] path = new int[n];
+
+        while (buildLevelGraph(g, s, t, level, queue)) {
+            for (int u = 0; u < n; u++) ptr[u] = g.head(u);
+            flow += blockingFlow(g, s, t, level, ptr, path);
+        }
+        return flow;
+    }
+
+    /**
+     * Level-graph BFS on an {@link OffHeapGraph}.
+     */
+    private static boolean buildLevelGraph(OffHeapGraph g, int s, int t, int[] level, int[] queue) {
+        Arrays.fill(level, -1);
+
+        int qh = 0, qt = 0;
+        level[s] = 0;
+        queue[qt++] = s;
+
+        while (qh < qt) {
+            int u = queue[qh++];
+            for (int a = g.head(u), end = g.head(u + 1); a < end; a++) {
+                int v = g.to(a);
+                if (level[v] == -1 && g.cap(a) > 0) {
+                    level[v] = level[u] + 1;
+                    queue[qt++] = v;
+                }
+            }
+        }
+        return level[t] != -1;
+    }
+
+    /**
+     * Explicit-stack blocking flow on an {@link OffHeapGraph}.
+     */
+    private static long blockingFlow(OffHeapGraph g, int s, int t, int[] level, int[] ptr, int[] path) {
+        long total = 0;
+        int depth = 0;
+        path[0] = s;
+
+        while (true) {
+            int u = path[depth];
+
+            if (u == t) {
+                long delta = Long.MAX_VALUE;
+                for (int i = 0; i < depth; i++) delta = Math.min(delta, g.cap(ptr[path[i]]));
+                int firstSaturated = -1;
+                for (int i = 0; i < depth; i++) {
+                    int a = ptr[path[i]];
+                    g.push(a, delta);
+                    if (firstSaturated < 0 && g.cap(a) == 0) firstSaturated = i;
+                }
+                total += delta;
+                depth = firstSaturated;
+                continue;
+            }
+
+            final int end = g.head(u + 1);
+            final int next = level[u] + 1;
+            int a = ptr[u];
+            while (a < end && (g.cap(a) <= 0 || level[g.to(a)] != next)) a++;
+            ptr[u] = a;
+            if (a < end) {
+                path[++depth] = g.to(a);
+                continue;
+            }
+
+            level[u] = -1;
+            if (depth == 0) return total;
+            depth--;
+            ptr[path[depth]]++;
+        }
+    }
 }
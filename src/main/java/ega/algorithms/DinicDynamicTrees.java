@@ -0,0 +1,353 @@
+package ega.algorithms;
+
+import ega.core.Edge;
+import ega.core.Graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Dinic's algorithm with Sleator–Tarjan dynamic trees (link-cut trees) for the blocking-flow phase.
+ *
+ * <p>Phases are the same as in {@link Dinic}: a BFS builds the level graph, then a blocking flow is sent, until
+ * t is unreachable. The blocking flow is computed on a forest of <b>current arcs</b> instead of by per-path DFS:
+ * <ul>
+ *   <li>Every vertex has at most one tree parent, reached via its current arc {@code ptr[v]}; the tree edge
+ *       carries the arc's residual capacity as its value.</li>
+ *   <li>If the root of the tree containing {@code s} is not t, the root <b>links</b> itself along its next
+ *       admissible arc; if it has none, it is dead: it leaves the level graph and all tree edges into it are
+ *       <b>cut</b>.</li>
+ *   <li>Once the root is t, the minimum value on the tree path {@code s -> t} is subtracted from the whole path
+ *       in O(log n) amortized time, and every tree edge that drops to zero is cut.</li>
+ * </ul>
+ * Each link is followed by at most one cut, so a phase costs O(m log n) instead of O(nm), giving
+ * O(n m log n) overall. Long augmenting paths that share a common suffix (high-diameter networks) are where
+ * this pays off; on small or shallow instances the plain {@link Dinic} is faster.
+ *
+ * <p>Residual capacities of tree arcs live only in the link-cut forest while linked; they are written back to
+ * the {@link Edge} objects (cap and flow of the arc and its reverse) whenever an arc is cut, and at the end of
+ * each phase.
+ */
+public class DinicDynamicTrees {
+
+    /** Value of a tree root (no parent edge); only ever decreased by path updates. */
+    private static final long INF = Long.MAX_VALUE;
+
+    /**
+     * Largest value a tree edge is linked with, so that no edge can be mistaken for a root. An arc with a larger
+     * residual capacity is linked with this value instead; it can never be saturated by one path anyway.
+     */
+    private static final long MAX_EDGE = INF - 1;
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t}.
+     *
+     * @param g residual network representation (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(Graph g, int s, int t) {
+        final int n = g.size();
+        long flow = 0L;
+
+        int[] level = new int[n];
+        int[] ptr = new int[n];
+        boolean[] linked = new boolean[n];
+        LinkCutForest forest = new LinkCutForest(n);
+
+        while (buildLevelGraph(g, s, t, level)) {
+            Arrays.fill(ptr, 0);
+            flow += blockingFlow(g, s, t, level, ptr, linked, forest);
+        }
+        return flow;
+    }
+
+    /**
+     * Sends a blocking flow in the current level graph using the link-cut forest (see class comment).
+     * All tree edges are cut (and synced back to the graph) before returning.
+     */
+    private static long blockingFlow(Graph g, int s, int t, int[] level, int[] ptr, boolean[] linked,
+                                     LinkCutForest forest) {
+        final int n = g.size();
+        long total = 0;
+
+        while (true) {
+            int v = forest.findRoot(s);
+
+            if (v == t) {
+                // Augment along the tree path s -> t by its bottleneck, then cut all saturated tree edges.
+                long delta = forest.pathMin(s);
+                forest.pathAdd(s, -delta);
+                total += delta;
+
+                while (forest.pathMin(s) == 0) {
+                    cutAndSync(g, forest.pathMinVertex(s), ptr, linked, forest);
+                }
+                continue;
+            }
+
+            // Advance: link the root along its next admissible arc.
+            List<Edge> adj = g.adj(v);
+            while (ptr[v] < adj.size()) {
+                Edge e = adj.get(ptr[v]);
+                if (e.cap > 0 && level[e.to] == level[v] + 1) break;
+                ptr[v]++;
+            }
+            if (ptr[v] < adj.size()) {
+                Edge e = adj.get(ptr[v]);
+                forest.link(v, e.to, Math.min(e.cap, MAX_EDGE));
+                linked[v] = true;
+                continue;
+            }
+
+            // Retreat: v is dead in this level graph; detach every tree edge that enters v.
+            if (v == s) break;
+            level[v] = -1;
+            for (Edge e : adj) {
+                int u = e.to;
+                if (linked[u] && ptr[u] == e.rev) cutAndSync(g, u, ptr, linked, forest);
+            }
+        }
+
+        // End of phase: write back every remaining tree edge.
+        for (int u = 0; u < n; u++) {
+            if (linked[u]) cutAndSync(g, u, ptr, linked, forest);
+        }
+        return total;
+    }
+
+    /**
+     * Cuts the tree edge of {@code u} (its current arc) and writes the flow pushed through it while linked back
+     * to the arc and its reverse. A saturated arc is skipped by advancing {@code ptr[u]}.
+     */
+    private static void cutAndSync(Graph g, int u, int[] ptr, boolean[] linked, LinkCutForest forest) {
+        long residual = forest.cut(u);
+        linked[u] = false;
+
+        Edge e = g.adj(u).get(ptr[u]);
+        long pushed = Math.min(e.cap, MAX_EDGE) - residual;
+        if (pushed != 0) {
+            e.cap -= pushed;
+            e.flow += pushed;
+
+            Edge rev = g.adj(e.to).get(e.rev);
+            rev.cap += pushed;
+            rev.flow -= pushed;
+        }
+        if (residual == 0) ptr[u]++;
+    }
+
+    /**
+     * Level-graph BFS on the residual network (identical to {@link Dinic}).
+     *
+     * @return {@code true} iff {@code t} is reachable from {@code s}
+     */
+    private static boolean buildLevelGraph(Graph g, int s, int t, int[] level) {
+        Arrays.fill(level, -1);
+
+        Queue<Integer> q = new ArrayDeque<>();
+        level[s] = 0;
+        q.add(s);
+
+        while (!q.isEmpty()) {
+            int u = q.poll();
+            for (Edge e : g.adj(u)) {
+                if (e.cap > 0 && level[e.to] == -1) {
+                    level[e.to] = level[u] + 1;
+                    q.add(e.to);
+                }
+            }
+        }
+        return level[t] != -1;
+    }
+
+    /* ===================== Link-cut forest ===================== */
+
+    /**
+     * Array-based link-cut trees over vertices {@code 0..n-1} (node {@code v+1} internally, 0 is the null node).
+     *
+     * <p>Each vertex stores the value of the edge to its tree parent ({@link #INF} for roots). Preferred paths
+     * are splay trees keyed by depth; every splay node keeps the minimum value of its subtree and a lazy
+     * additive tag for its children. Only rooted-tree operations are needed (no evert).
+     */
+    private static final class LinkCutForest {
+        private final int[] left, right, parent;
+        private final long[] val, min, lazy;
+        /** Scratch stack for top-down lazy propagation in {@link #splay}. */
+        private final int[] stack;
+
+        LinkCutForest(int n) {
+            left = new int[n + 1];
+            right = new int[n + 1];
+            parent = new int[n + 1];
+            val = new long[n + 1];
+            min = new long[n + 1];
+            lazy = new long[n + 1];
+            stack = new int[n + 1];
+            Arrays.fill(val, INF);
+            Arrays.fill(min, INF);
+        }
+
+        /** @return root of the tree containing {@code v} */
+        int findRoot(int v) {
+            int x = v + 1;
+            access(x);
+            while (true) {
+                push(x);
+                if (left[x] == 0) break;
+                x = left[x];
+            }
+            splay(x);
+            return x - 1;
+        }
+
+        /** Makes {@code w} the parent of root {@code v} via an edge of value {@code value}. */
+        void link(int v, int w, long value) {
+            int x = v + 1;
+            access(x);
+            // x is a tree root: after access it is alone in its splay tree (no left = no ancestors).
+            val[x] = value;
+            pull(x);
+            parent[x] = w + 1;
+        }
+
+        /**
+         * Removes the edge from {@code v} to its parent.
+         *
+         * @return the edge's value at the time of the cut
+         */
+        long cut(int v) {
+            int x = v + 1;
+            access(x);
+            long value = val[x];
+            int l = left[x];
+            if (l != 0) {
+                parent[l] = 0;
+                left[x] = 0;
+            }
+            val[x] = INF;
+            pull(x);
+            return value;
+        }
+
+        /** @return minimum edge value on the path from {@code v} to its root */
+        long pathMin(int v) {
+            int x = v + 1;
+            access(x);
+            return min[x];
+        }
+
+        /** @return a vertex on the path from {@code v} to its root whose edge value is the path minimum */
+        int pathMinVertex(int v) {
+            int x = v + 1;
+            access(x);
+            long target = min[x];
+            while (true) {
+                push(x);
+                if (left[x] != 0 && min[left[x]] == target) {
+                    x = left[x];
+                } else if (val[x] == target) {
+                    break;
+                } else {
+                    x = right[x];
+                }
+            }
+            splay(x);
+            return x - 1;
+        }
+
+        /** Adds {@code delta} to every edge value on the path from {@code v} to its root. */
+        void pathAdd(int v, long delta) {
+            int x = v + 1;
+            access(x);
+            apply(x, delta);
+        }
+
+        /* ---- splay machinery ---- */
+
+        private boolean isSplayRoot(int x) {
+            int p = parent[x];
+            return p == 0 || (left[p] != x && right[p] != x);
+        }
+
+        private void apply(int x, long delta) {
+            if (x == 0) return;
+            // Roots keep INF (they have no edge); only real edge values move.
+            if (val[x] != INF) val[x] += delta;
+            if (min[x] != INF) min[x] += delta;
+            lazy[x] += delta;
+        }
+
+        private void push(int x) {
+            if (lazy[x] != 0) {
+                apply(left[x], lazy[x]);
+                apply(right[x], lazy[x]);
+                lazy[x] = 0;
+            }
+        }
+
+        private void pull(int x) {
+            long m = val[x];
+            if (min[left[x]] < m) m = min[left[x]];
+            if (min[right[x]] < m) m = min[right[x]];
+            min[x] = m;
+        }
+
+        private void rotate(int x) {
+            int p = parent[x], gp = parent[p];
+            boolean pRoot = isSplayRoot(p);
+            if (left[p] == x) {
+                int b = right[x];
+                left[p] = b;
+                if (b != 0) parent[b] = p;
+                right[x] = p;
+            } else {
+                int b = left[x];
+                right[p] = b;
+                if (b != 0) parent[b] = p;
+                left[x] = p;
+            }
+            parent[p] = x;
+            parent[x] = gp;
+            if (!pRoot) {
+                if (left[gp] == p) left[gp] = x;
+                else right[gp] = x;
+            }
+            pull(p);
+            pull(x);
+        }
+
+        private void splay(int x) {
+            // Push lazy tags down from the splay root to x first.
+            int top = 0;
+            stack[top++] = x;
+            for (int y = x; !isSplayRoot(y); y = parent[y]) stack[top++] = parent[y];
+            while (top > 0) push(stack[--top]);
+
+            while (!isSplayRoot(x)) {
+                int p = parent[x];
+                if (!isSplayRoot(p)) {
+                    int gp = parent[p];
+                    boolean zigZig = (left[gp] == p) == (left[p] == x);
+                    rotate(zigZig ? p : x);
+                }
+                rotate(x);
+            }
+        }
+
+        /** Makes the path root..x preferred; afterwards x is the splay root with no right child. */
+        private void access(int x) {
+            int last = 0;
+            for (int y = x; y != 0; y = parent[y]) {
+                splay(y);
+                right[y] = last;
+                pull(y);
+                last = y;
+            }
+            splay(x);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ega.algorithms;
 
+import ega.core.CsrGraph;
 import ega.core.Edge;
 import ega.core.Graph;
 import ega.gui.vis.*; // VisFrame / Path / Push / Cut
@@ -20,6 +21,15 @@ import java.util.Queue;
  * <p>Complexity:
  * O(V * E^2) in general (with adjacency-list residual graph and BFS per augmentation).
  *
+ * <p>Optional capacity scaling ({@link #setCapacityScaling(boolean)}): the BFS only traverses residual edges
+ * with {@code cap >= delta}, starting with the largest power of two not exceeding the maximum capacity out of s,
+ * and halves {@code delta} whenever no such path is left. This needs O(E log U) augmentations for capacities
+ * up to U instead of one per unit of bottleneck imbalance.
+ *
+ * <p>The non-visual variants allocate nothing per augmentation: predecessor arrays and an int queue live in
+ * the solver instance and are reused across augmentations and solves, and visited marks are epoch stamps, so
+ * starting a BFS does not clear any array.
+ *
  * <p>Graph/edge assumptions (matching the project's residual representation):
  * <ul>
  *   <li>Edges are stored in adjacency lists {@code g.adj(u)}.</li>
@@ -30,6 +40,53 @@ import java.util.Queue;
  */
 public class EdmondsKarp {
 
+    /** Whether {@link #maxFlow(Graph, int, int)} uses capacity scaling. */
+    private boolean capacityScaling = false;
+
+    /** Whether {@link #maxFlow(Graph, int, int)} searches from both ends. */
+    private boolean bidirectionalSearch = false;
+
+    /** Bidirectional search workspace (created on first use). */
+    private BidirectionalBfs bidirectionalBfs;
+
+    /*
+     * BFS workspace, allocated on first use and reused across augmentations and solves (grown if a larger
+     * graph comes along). A vertex is visited in the current BFS iff visitedAt[v] == epoch, so starting a new
+     * BFS is a counter increment instead of clearing arrays.
+     */
+
+    /** Predecessor node on the BFS tree. */
+    private int[] prevNode = new int[0];
+
+    /** Index of the edge used to enter v from prevNode[v] (for CsrGraph: the global arc id). */
+    private int[] prevEdge = new int[0];
+
+    /** BFS queue; every vertex is enqueued at most once per BFS, so n slots suffice. */
+    private int[] queue = new int[0];
+
+    /** Visit stamps, compared against {@link #epoch}. */
+    private int[] visitedAt = new int[0];
+
+    /** Stamp of the current BFS. */
+    private int epoch = 0;
+
+    /**
+     * Enables capacity scaling in {@link #maxFlow(Graph, int, int)} (default off).
+     */
+    public void setCapacityScaling(boolean enable) {
+        this.capacityScaling = enable;
+    }
+
+    /**
+     * Enables bidirectional path search in {@link #maxFlow(Graph, int, int)} (default off): every augmenting
+     * path is found by BFS layers grown alternately from s and (over reverse residual arcs) from t, stopping
+     * at the layer where they meet. The paths are still shortest, but far fewer vertices are visited when s
+     * and t are close relative to the size of the graph. Combines with capacity scaling.
+     */
+    public void setBidirectionalSearch(boolean enable) {
+        this.bidirectionalSearch = enable;
+    }
+
     /**
      * Computes the maximum flow from {@code s} to {@code t} (no visualization output).
      *
@@ -45,27 +102,38 @@ public class EdmondsKarp {
         long flow = 0L;
         final int n = g.size();
 
+        // Only residual edges with cap >= delta are traversed; delta == 1 is the unscaled algorithm.
+        long delta = capacityScaling ? initialDelta(g, s) : 1L;
+
+        ensureWorkspace(n);
+        if (bidirectionalSearch) return maxFlowBidirectional(g, s, t, delta);
+
+        final int[] prevNode = this.prevNode;
+        final int[] prevEdge = this.prevEdge;
+        final int[] queue = this.queue;
+        final int[] visitedAt = this.visitedAt;
+
         while (true) {
             // BFS on the residual network to find an augmenting path s -> t.
-            int[] prevNode = new int[n]; // prevNode[v] = predecessor node on the BFS tree
-            int[] prevEdge = new int[n]; // prevEdge[v] = index of the edge used to enter v from prevNode[v]
-            Arrays.fill(prevNode, -1);
-            prevNode[s] = s; // mark source as visited
+            final int stamp = nextEpoch();
+            visitedAt[s] = stamp; // mark source as visited
 
-            Queue<Integer> q = new ArrayDeque<>();
-            q.add(s);
+            int qh = 0, qt = 0;
+            queue[qt++] = s;
 
             boolean reachedT = false;
             BFS:
-            while (!q.isEmpty()) {
-                int u = q.poll();
-                for (int i = 0; i < g.adj(u).size(); i++) {
-                    Edge e = g.adj(u).get(i);
+            while (qh < qt) {
+                int u = queue[qh++];
+                List<Edge> adj = g.adj(u);
+                for (int i = 0; i < adj.size(); i++) {
+                    Edge e = adj.get(i);
 
-                    // Traverse only edges with positive residual capacity to unvisited nodes.
-                    if (e.cap <= 0) continue;
-                    if (prevNode[e.to] != -1) continue;
+                    // Traverse only edges with enough residual capacity to unvisited nodes.
+                    if (e.cap < delta) continue;
+                    if (visitedAt[e.to] == stamp) continue;
 
+                    visitedAt[e.to] = stamp;
                     prevNode[e.to] = u;
                     prevEdge[e.to] = i;
 
@@ -73,12 +141,16 @@ public class EdmondsKarp {
                         reachedT = true;
                         break BFS; // early exit once we reach the sink
                     }
-                    q.add(e.to);
+                    queue[qt++] = e.to;
                 }
             }
 
-            // No augmenting path exists -> current flow is maximum.
-            if (!reachedT) break;
+            if (!reachedT) {
+                // No augmenting path exists -> current flow is maximum (or: move to the next scaling phase).
+                if (delta == 1) break;
+                delta >>= 1;
+                continue;
+            }
 
             // Compute the bottleneck (minimum residual capacity) along the found path.
             long bottleneck = INF;
@@ -107,6 +179,74 @@ public class EdmondsKarp {
         return flow;
     }
 
+    /**
+     * {@link #maxFlow(Graph, int, int)} with paths found by {@link BidirectionalBfs}; the path is collected into
+     * {@code prevNode} (vertices) and {@code prevEdge} (arc indices).
+     */
+    private long maxFlowBidirectional(Graph g, int s, int t, long delta) {
+        if (bidirectionalBfs == null) bidirectionalBfs = new BidirectionalBfs();
+        final int[] nodes = prevNode;
+        final int[] arcs = prevEdge;
+        long flow = 0L;
+
+        while (true) {
+            if (!bidirectionalBfs.search(g, s, t, delta)) {
+                if (delta == 1) break;
+                delta >>= 1;
+                continue;
+            }
+            int k = bidirectionalBfs.path(g, s, t, nodes, arcs);
+
+            long bottleneck = Long.MAX_VALUE;
+            for (int i = 0; i < k; i++) {
+                bottleneck = Math.min(bottleneck, g.adj(nodes[i]).get(arcs[i]).cap);
+            }
+            for (int i = 0; i < k; i++) {
+                Edge e = g.adj(nodes[i]).get(arcs[i]);
+                Edge rev = g.adj(e.to).get(e.rev);
+                e.cap -= bottleneck;
+                rev.cap += bottleneck;
+                e.flow += bottleneck;
+                rev.flow -= bottleneck;
+            }
+            flow += bottleneck;
+        }
+        return flow;
+    }
+
+    /**
+     * Makes sure the BFS workspace holds at least {@code n} vertices.
+     */
+    private void ensureWorkspace(int n) {
+        if (visitedAt.length >= n) return;
+        prevNode = new int[n];
+        prevEdge = new int[n];
+        queue = new int[n];
+        visitedAt = new int[n];
+        epoch = 0;
+    }
+
+    /**
+     * Starts a new BFS and returns its stamp (the stamps are only cleared when the counter wraps around).
+     */
+    private int nextEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitedAt, 0);
+            epoch = 1;
+        }
+        return epoch;
+    }
+
+    /**
+     * Initial scaling threshold: the largest power of two not exceeding the largest residual capacity out of
+     * {@code s} (at least 1).
+     */
+    private static long initialDelta(Graph g, int s) {
+        long maxCap = 0;
+        for (Edge e : g.adj(s)) maxCap = Math.max(maxCap, e.cap);
+        return Math.max(1L, Long.highestOneBit(maxCap));
+    }
+
     /**
      * Computes the maximum flow from {@code s} to {@code t}, optionally emitting visualization frames.
      *
@@ -268,4 +408,84 @@ public class EdmondsKarp {
 
         return vis;
     }
+
+    /* ===================== Array-based variant (CsrGraph) ===================== */
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t} on a {@link CsrGraph}.
+     *
+     * <p>Same BFS augmentation as {@link #maxFlow(Graph, int, int)}; {@code prevArc[v]} stores the global
+     * arc id used to enter {@code v}, so the predecessor node is implicit ({@code to[rev[prevArc[v]]]}).
+     *
+     * @param g CSR residual network (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(CsrGraph g, int s, int t) {
+        if (s == t) return 0L;
+
+        final long INF = Long.MAX_VALUE / 4;
+        final int n = g.size();
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        final long[] flowArr = g.flow();
+
+        ensureWorkspace(n);
+        final int[] prevArc = this.prevEdge;
+        final int[] queue = this.queue;
+        final int[] visitedAt = this.visitedAt;
+        long flow = 0L;
+
+        while (true) {
+            final int stamp = nextEpoch();
+            visitedAt[s] = stamp; // mark source as visited
+
+            int qh = 0, qt = 0;
+            queue[qt++] = s;
+
+            boolean reachedT = false;
+            BFS:
+            while (qh < qt) {
+                int u = queue[qh++];
+                for (int a = head[u]; a < head[u + 1]; a++) {
+                    int v = to[a];
+                    if (cap[a] <= 0) continue;
+                    if (visitedAt[v] == stamp) continue;
+
+                    visitedAt[v] = stamp;
+                    prevArc[v] = a;
+
+                    if (v == t) {
+                        reachedT = true;
+                        break BFS;
+                    }
+                    queue[qt++] = v;
+                }
+            }
+
+            if (!reachedT) break;
+
+            long bottleneck = INF;
+            for (int v = t; v != s; v = to[rev[prevArc[v]]]) {
+                int a = prevArc[v];
+                if (cap[a] < bottleneck) bottleneck = cap[a];
+            }
+
+            for (int v = t; v != s; v = to[rev[prevArc[v]]]) {
+                int a = prevArc[v];
+                int r = rev[a];
+                cap[a] -= bottleneck;
+                cap[r] += bottleneck;
+                flowArr[a] += bottleneck;
+                flowArr[r] -= bottleneck;
+            }
+
+            flow += bottleneck;
+        }
+
+        return flow;
+    }
 }
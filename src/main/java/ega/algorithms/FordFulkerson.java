@@ -1,5 +1,6 @@
 package ega.algorithms;
 
+import ega.core.CsrGraph;
 import ega.core.Edge;
 import ega.core.Graph;
 import ega.gui.vis.*;   // VisFrame, Path, Push, Cut
@@ -24,6 +25,21 @@ import java.util.*;
  */
 public class FordFulkerson {
 
+    /** Whether {@link #maxFlow(Graph, int, int)} uses capacity scaling. */
+    private boolean capacityScaling = false;
+
+    /**
+     * Enables capacity scaling in {@link #maxFlow(Graph, int, int)} (default off).
+     *
+     * <p>The DFS then only traverses residual edges with {@code cap >= delta}. {@code delta} starts at the largest
+     * power of two not exceeding the maximum capacity out of s and is halved whenever no such path is left, so
+     * every augmentation moves at least {@code delta} units and at most O(E) augmentations happen per phase,
+     * O(E log U) in total for capacities up to U.
+     */
+    public void setCapacityScaling(boolean enable) {
+        this.capacityScaling = enable;
+    }
+
     /**
      * Computes the maximum flow from {@code s} to {@code t} (no visualization).
      *
@@ -45,10 +61,17 @@ public class FordFulkerson {
         int[] prevNode = new int[n];
         int[] prevEdge = new int[n];
 
+        // Only residual edges with cap >= delta are traversed; delta == 1 is the unscaled algorithm.
+        long delta = capacityScaling ? initialDelta(g, s) : 1L;
+
         while (true) {
             // Find any augmenting path in the residual network and fill prevNode/prevEdge.
-            boolean found = findAugmentingPathDFS(g, s, t, prevNode, prevEdge);
-            if (!found) break;
+            boolean found = findAugmentingPathDFS(g, s, t, prevNode, prevEdge, delta);
+            if (!found) {
+                if (delta == 1) break;
+                delta >>= 1; // next scaling phase
+                continue;
+            }
 
             // Compute the path bottleneck (minimum residual capacity along the path).
             long bottleneck = INF;
@@ -77,6 +100,16 @@ public class FordFulkerson {
         return flow;
     }
 
+    /**
+     * Initial scaling threshold: the largest power of two not exceeding the largest residual capacity out of
+     * {@code s} (at least 1).
+     */
+    private static long initialDelta(Graph g, int s) {
+        long maxCap = 0;
+        for (Edge e : g.adj(s)) maxCap = Math.max(maxCap, e.cap);
+        return Math.max(1L, Long.highestOneBit(maxCap));
+    }
+
     /**
      * Computes the maximum flow from {@code s} to {@code t}, optionally emitting visualization frames.
      *
@@ -104,7 +137,7 @@ public class FordFulkerson {
         int[] prevEdge = new int[n];
 
         while (true) {
-            boolean found = findAugmentingPathDFS(g, s, t, prevNode, prevEdge);
+            boolean found = findAugmentingPathDFS(g, s, t, prevNode, prevEdge, 1L);
             if (!found) break;
 
             // Reconstruct the node sequence s -> ... -> t for visualization.
@@ -178,10 +211,11 @@ public class FordFulkerson {
      * @param t        sink
      * @param prevNode output: predecessor node on the found DFS tree (filled; -1 means undiscovered)
      * @param prevEdge output: edge index used to enter the node from its predecessor
+     * @param minCap   minimum residual capacity of a traversable edge (1 without scaling)
      * @return {@code true} iff {@code t} is reachable from {@code s} via edges with positive residual capacity
      */
     private boolean findAugmentingPathDFS(Graph g, int s, int t,
-                                          int[] prevNode, int[] prevEdge) {
+                                          int[] prevNode, int[] prevEdge, long minCap) {
         final int n = g.size();
         Arrays.fill(prevNode, -1);
         Arrays.fill(prevEdge, -1);
@@ -206,8 +240,8 @@ public class FordFulkerson {
                 it[u] = i + 1; // advance cursor regardless of whether this edge works
                 Edge e = adj.get(i);
 
-                // Only traverse edges with positive residual capacity, and avoid revisiting nodes.
-                if (e.cap <= 0) continue;
+                // Only traverse edges with at least minCap residual capacity, and avoid revisiting nodes.
+                if (e.cap < minCap) continue;
                 int v = e.to;
                 if (prevNode[v] != -1) continue;
 
@@ -277,4 +311,98 @@ public class FordFulkerson {
 
         return vis;
     }
+
+    /* ===================== Array-based variant (CsrGraph) ===================== */
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t} on a {@link CsrGraph}.
+     *
+     * <p>Same DFS augmentation as {@link #maxFlow(Graph, int, int)}, with an {@code int[]} stack and
+     * global arc ids in {@code prevArc}.
+     *
+     * @param g CSR residual network (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(CsrGraph g, int s, int t) {
+        if (s == t) return 0L;
+
+        final long INF = Long.MAX_VALUE / 4;
+        final int n = g.size();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        final long[] flowArr = g.flow();
+
+        int[] prevArc = new int[n];
+        int[] it = new int[n];
+        int[] stack = new int[n];
+        long flow = 0L;
+
+        while (true) {
+            boolean found = findAugmentingPathDFS(g, s, t, prevArc, it, stack);
+            if (!found) break;
+
+            long bottleneck = INF;
+            for (int v = t; v != s; v = to[rev[prevArc[v]]]) {
+                int a = prevArc[v];
+                if (cap[a] < bottleneck) bottleneck = cap[a];
+            }
+
+            for (int v = t; v != s; v = to[rev[prevArc[v]]]) {
+                int a = prevArc[v];
+                int r = rev[a];
+                cap[a] -= bottleneck;
+                cap[r] += bottleneck;
+                flowArr[a] += bottleneck;
+                flowArr[r] -= bottleneck;
+            }
+
+            flow += bottleneck;
+        }
+
+        return flow;
+    }
+
+    /**
+     * {@link #findAugmentingPathDFS(Graph, int, int, int[], int[], long)} on a {@link CsrGraph}.
+     *
+     * @param prevArc output: global arc id used to enter each node (-1 = undiscovered)
+     * @param it      scratch current-arc cursors (length n)
+     * @param stack   scratch DFS stack (length n; each node is pushed at most once)
+     */
+    private boolean findAugmentingPathDFS(CsrGraph g, int s, int t, int[] prevArc, int[] it, int[] stack) {
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final long[] cap = g.cap();
+        Arrays.fill(prevArc, -1);
+        System.arraycopy(head, 0, it, 0, it.length);
+
+        int sp = 0;
+        stack[sp++] = s;
+        prevArc[s] = Integer.MAX_VALUE; // mark source as discovered (never dereferenced)
+
+        while (sp > 0) {
+            int u = stack[sp - 1];
+            if (u == t) return true;
+
+            boolean advanced = false;
+            while (it[u] < head[u + 1]) {
+                int a = it[u]++;
+                if (cap[a] <= 0) continue;
+                int v = to[a];
+                if (prevArc[v] != -1) continue;
+
+                prevArc[v] = a;
+                stack[sp++] = v;
+                advanced = true;
+                break;
+            }
+
+            if (!advanced) sp--;
+        }
+
+        return false;
+    }
 }
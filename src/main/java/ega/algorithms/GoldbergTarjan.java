@@ -1,12 +1,17 @@
 package ega.algorithms;
 
+import ega.core.CsrGraph;
 import ega.core.Edge;
 import ega.core.Graph;
+import ega.core.OffHeapGraph;
 import ega.gui.vis.*;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Goldberg–Tarjan Push–Relabel algorithm (preflow-push) for computing a maximum s-t flow.
@@ -24,10 +29,19 @@ import java.util.Queue;
  *
  * <p>Implementation choices:
  * <ul>
- *   <li>Active vertices (excess>0, excluding s and t) are processed in a FIFO queue.</li>
+ *   <li>Active vertices (excess>0, excluding s and t) are processed in a FIFO queue by default, or in
+ *       highest-label order (see {@link Selection}).</li>
  *   <li>Current-arc optimization via {@code ptr[u]} avoids rescanning adjacency lists from scratch.</li>
+ *   <li>Optional global relabeling ({@link #setGlobalRelabelFrequency(double)}) periodically replaces all
+ *       heights by exact residual distances to t (or n + distance to s).</li>
+ *   <li>Optional parallel global relabeling ({@link #setThreads(int)}) runs the reverse searches as a
+ *       level-synchronous parallel BFS; {@link #statistics()} reports how much time they take.</li>
+ *   <li>Optional gap heuristic ({@link #setGapHeuristic(boolean)}) lifts every vertex above an emptied
+ *       height level straight to n+1.</li>
  *   <li>The residual network is stored in-place: {@code e.cap} is residual capacity and each edge has a reverse edge {@code e.rev}.</li>
  * </ul>
+ * These options apply to every variant without visualization: {@link Graph}, {@link CsrGraph} and
+ * {@link OffHeapGraph}.
  *
  * <p>Visualization support:
  * If {@code out} is provided, the algorithm emits frames for levels/heights, pushes, relabels, and a residual cut.
@@ -40,13 +54,31 @@ public class GoldbergTarjan {
     /** Excess flow at each vertex (may be negative at s due to initialization). */
     private long[] excess;
 
-    /** FIFO queue of active vertices (excluding s and t). */
+    /** FIFO queue of active vertices (excluding s and t) of the visualization variant. */
     private Queue<Integer> activeQ;
 
-    /** Whether a vertex is currently in {@link #activeQ}. */
+    /** FIFO mode: ring buffer of active vertices (capacity n; each vertex is listed at most once). */
+    private int[] ring;
+
+    /** FIFO mode: front index and number of entries of {@link #ring}. */
+    private int ringHead, ringSize;
+
+    /** Whether a vertex is currently active-listed (in the FIFO ring or in its height bucket). */
     private boolean[] inQ;
 
-    /** Current-arc pointer per vertex for discharge scanning. */
+    /** Highest-label mode: first active vertex per height, -1 if the bucket is empty. */
+    private int[] bucket;
+
+    /** Highest-label mode: next active vertex in the same height bucket (intrusive list), -1 at the end. */
+    private int[] next;
+
+    /** Highest-label mode: previous active vertex in the same height bucket, -1 at the front. */
+    private int[] prev;
+
+    /** Highest-label mode: upper bound on the highest non-empty bucket. */
+    private int maxActive;
+
+    /** Current-arc pointer per vertex for discharge scanning (index into the vertex's own arcs). */
     private int[] ptr;
 
     /** Visualization output (may be null). */
@@ -62,6 +94,177 @@ public class GoldbergTarjan {
         this.overlayCutInSameFrame = enable;
     }
 
+    /**
+     * Order in which active vertices are discharged.
+     */
+    public enum Selection {
+        /** First-in first-out queue (the classic variant). */
+        FIFO,
+        /** Always discharge an active vertex of maximum height, using per-height bucket lists. */
+        HIGHEST_LABEL
+    }
+
+    /** Active-vertex selection rule (not used by the visualization variant). */
+    private Selection selection = Selection.FIFO;
+
+    /** Work charged per relabel on top of the scanned degree (as in common push-relabel codes). */
+    private static final int RELABEL_WORK = 12;
+
+    /** Global relabel frequency; 0 disables global relabeling. */
+    private double globalRelabelFrequency = 0.0;
+
+    /** Relabel work since the last global relabel. */
+    private long relabelWork;
+
+    /** Relabel work that triggers the next global relabel ({@code Long.MAX_VALUE} when disabled). */
+    private long globalRelabelThreshold;
+
+    /** Whether the gap heuristic is enabled. */
+    private boolean gapHeuristic = false;
+
+    /** Gap heuristic: number of vertices per height below n (null when disabled). */
+    private int[] count;
+
+    /** Gap heuristic: first vertex per height below n, -1 if none (intrusive list over all such vertices). */
+    private int[] levelFirst;
+
+    /** Gap heuristic: next / previous vertex of the same height, -1 at the ends. */
+    private int[] levelNext, levelPrev;
+
+    /** Gap heuristic: upper bound on the highest non-empty height below n. */
+    private int maxLevel;
+
+    /** Number of threads for global relabeling; 1 keeps the serial reverse BFS. */
+    private int threads = 1;
+
+    /** Pool and parallel BFS of the running call, or null if global relabeling is serial. */
+    private ForkJoinPool pool;
+    private ParallelLevelBfs parallelBfs;
+
+    /** Counters of the running call (see {@link Statistics}). */
+    private long pushes, relabels, globalRelabels, globalRelabelNanos, startNanos;
+
+    /** Counters of the last completed {@code maxFlow} (without visualization) or {@link #minCut} call. */
+    private Statistics statistics;
+
+    /**
+     * Sets the active-vertex selection rule (default FIFO). The visualization variant always uses FIFO.
+     */
+    public void setSelection(Selection selection) {
+        if (selection == null) throw new IllegalArgumentException("selection must not be null.");
+        this.selection = selection;
+    }
+
+    /**
+     * Enables periodic global relabeling (not in the visualization variant).
+     *
+     * <p>Every relabel of u is charged {@code deg(u) + 12} units of work. Once the work since the last global
+     * relabel exceeds {@code frequency * (6n + m)} (m = number of residual arcs), all heights are recomputed by
+     * a reverse BFS from t over residual arcs, and from s (offset by n) for vertices that cannot reach t.
+     * A first global relabel runs right after the preflow is initialized. Smaller values relabel more often;
+     * 0 (the default) disables the heuristic.
+     *
+     * @param frequency relabel-work multiplier (>= 0)
+     */
+    public void setGlobalRelabelFrequency(double frequency) {
+        if (!(frequency >= 0)) throw new IllegalArgumentException("frequency must be >= 0.");
+        this.globalRelabelFrequency = frequency;
+    }
+
+    /**
+     * Enables the gap heuristic (default off; not in the visualization variant).
+     *
+     * <p>Per-height vertex counts and vertex lists are maintained for heights below n. When a relabel empties
+     * height {@code h}, no vertex above {@code h} can reach t any more, so all vertices with
+     * {@code h < height < n} are lifted to n+1 at once instead of being relabelled one unit at a time. Only the
+     * lists of the heights above {@code h} are walked, not all vertices.
+     */
+    public void setGapHeuristic(boolean enable) {
+        this.gapHeuristic = enable;
+    }
+
+    /**
+     * Sets the number of threads used for global relabeling on {@link Graph} and {@link CsrGraph} inputs
+     * (default 1, the serial reverse BFS). {@link OffHeapGraph} inputs always relabel serially.
+     *
+     * <p>With more than one thread, graphs with at least {@link ParallelLevelBfs#MIN_VERTICES} vertices run
+     * both reverse searches of a global relabel as a level-synchronous parallel BFS (one barrier per layer)
+     * between discharges; push and relabel operations stay serial. Has no effect unless global relabeling is
+     * enabled.
+     *
+     * @param threads number of worker threads (>= 1)
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1.");
+        this.threads = threads;
+    }
+
+    /**
+     * Operation counts and timings of a {@code maxFlow} (without visualization) or
+     * {@link #minCut(Graph, int, int, boolean)} call.
+     */
+    public static class Statistics {
+        /** Number of push operations. */
+        public final long pushes;
+
+        /** Number of relabel operations (not counting gap lifts and global relabels). */
+        public final long relabels;
+
+        /** Number of global relabels, including the initial one. */
+        public final long globalRelabels;
+
+        /** Wall-clock time spent in global relabeling, in nanoseconds. */
+        public final long globalRelabelNanos;
+
+        /** Wall-clock time of the whole call, in nanoseconds. */
+        public final long totalNanos;
+
+        public Statistics(long pushes, long relabels, long globalRelabels, long globalRelabelNanos,
+                          long totalNanos) {
+            this.pushes = pushes;
+            this.relabels = relabels;
+            this.globalRelabels = globalRelabels;
+            this.globalRelabelNanos = globalRelabelNanos;
+            this.totalNanos = totalNanos;
+        }
+
+        /** Time spent outside global relabeling (preflow, pushes, relabels, gaps), in nanoseconds. */
+        public long dischargeNanos() {
+            return totalNanos - globalRelabelNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "pushes=%d relabels=%d globalRelabels=%d globalRelabel=%.1fms discharge=%.1fms",
+                    pushes, relabels, globalRelabels, globalRelabelNanos / 1e6, dischargeNanos() / 1e6);
+        }
+    }
+
+    /**
+     * Returns the counters of the last {@code maxFlow} (without visualization) or
+     * {@link #minCut(Graph, int, int, boolean)} call, or null before the first one.
+     */
+    public Statistics statistics() {
+        return statistics;
+    }
+
+    /**
+     * Result of {@link #minCut(Graph, int, int, boolean)}.
+     */
+    public static class MinCut {
+        /** Capacity of the minimum s-t cut (equals the max-flow value). */
+        public final long value;
+
+        /** Source side of the cut: {@code inS[v]} iff v cannot reach t in the final residual network. */
+        public final boolean[] inS;
+
+        public MinCut(long value, boolean[] inS) {
+            this.value = value;
+            this.inS = inS;
+        }
+    }
+
     /**
      * Computes the maximum flow from {@code s} to {@code t} (no visualization).
      *
@@ -71,15 +274,68 @@ public class GoldbergTarjan {
      * @return maximum s-t flow value
      */
     public long maxFlow(Graph g, int s, int t) {
+        try {
+            initPreflow(g, s, t);
+            dischargeActive(g, s, t, Integer.MAX_VALUE);
+        } finally {
+            releaseWorkspace();
+        }
+
+        // With a valid preflow and no active vertices, the excess at t equals the max flow value.
+        return excess[t];
+    }
+
+    /**
+     * Computes a minimum s-t cut with two-phase push-relabel (no visualization).
+     *
+     * <p>Phase one only discharges active vertices of height below n. When none is left, every vertex that
+     * can still reach t is free of excess, so {@code excess[t]} is already the max-flow value and the vertices
+     * that cannot reach t form the source side of a minimum cut. The residual network then holds a
+     * <b>preflow</b> (excess may remain at vertices of height >= n).
+     *
+     * <p>If {@code recoverFlow} is set, phase two continues discharging the remaining active vertices (their
+     * excess can only return to s), turning the preflow into a valid maximum flow that satisfies
+     * {@link ega.core.FlowValidators#flowConservation(Graph, int, int)}. Selection, global relabeling and gap
+     * options apply to both phases.
+     *
+     * @param g           residual network representation (modified in-place)
+     * @param s           source node index
+     * @param t           sink node index
+     * @param recoverFlow whether to run phase two
+     * @return cut value and source side
+     */
+    public MinCut minCut(Graph g, int s, int t, boolean recoverFlow) {
         final int n = g.size();
-        height = new int[n];
-        excess = new long[n];
-        activeQ = new ArrayDeque<>();
-        inQ = new boolean[n];
-        ptr = new int[n];
+        long value;
+        boolean[] inS;
+        try {
+            initPreflow(g, s, t);
+            dischargeActive(g, s, t, n);
+
+            value = excess[t];
+            inS = sourceSide(g, t);
+
+            if (recoverFlow) {
+                for (int v = 0; v < n; v++) {
+                    if (v != s && v != t && !inQ[v] && excess[v] > 0) activate(v);
+                }
+                dischargeActive(g, s, t, Integer.MAX_VALUE);
+            }
+        } finally {
+            releaseWorkspace();
+        }
+        return new MinCut(value, inS);
+    }
 
-        // Initialize preflow: set height[s]=n and saturate all outgoing residual edges of s.
-        height[s] = n;
+    /**
+     * Allocates the per-run state and saturates all arcs leaving s (height[s] = n); runs a first global
+     * relabel if enabled.
+     */
+    private void initPreflow(Graph g, int s, int t) {
+        final int n = g.size();
+        initWorkspace(n, s);
+
+        // Initialize preflow: saturate all outgoing residual edges of s.
         for (Edge e : g.adj(s)) {
             if (e.cap <= 0) continue;
 
@@ -98,29 +354,132 @@ public class GoldbergTarjan {
 
             // Activate newly overflowing vertices (excluding s and t).
             if (e.to != s && e.to != t && !inQ[e.to] && excess[e.to] > 0) {
-                activeQ.add(e.to);
-                inQ[e.to] = true;
+                activate(e.to);
             }
         }
 
-        // Process active vertices until none remain.
-        while (!activeQ.isEmpty()) {
-            int u = activeQ.poll();
-            inQ[u] = false;
+        if (globalRelabelFrequency > 0) {
+            long arcs = 0;
+            for (int v = 0; v < n; v++) arcs += g.adj(v).size();
+            startGlobalRelabeling(n, arcs, true);
+            globalRelabel(g, s, t);
+        }
+        relabelWork = 0;
+    }
 
-            if (u == s || u == t) continue;
+    /**
+     * Allocates heights, excess, current arcs and the selection and gap structures for a run on n vertices,
+     * resets the counters and sets height[s] = n.
+     */
+    private void initWorkspace(int n, int s) {
+        startNanos = System.nanoTime();
+        pushes = relabels = globalRelabels = globalRelabelNanos = 0;
+        height = new int[n];
+        excess = new long[n];
+        inQ = new boolean[n];
+        ptr = new int[n];
+        globalRelabelThreshold = Long.MAX_VALUE;
+
+        if (selection == Selection.HIGHEST_LABEL) {
+            // Heights of active vertices stay below 2n.
+            ring = null;
+            bucket = new int[2 * n + 1];
+            next = new int[n];
+            prev = new int[n];
+            Arrays.fill(bucket, -1);
+            maxActive = -1;
+        } else {
+            ring = new int[n];
+            ringHead = ringSize = 0;
+        }
+
+        height[s] = n;
+        if (gapHeuristic) {
+            count = new int[n];
+            levelFirst = new int[n];
+            levelNext = new int[n];
+            levelPrev = new int[n];
+            rebuildLevels(); // every vertex but s starts at height 0
+        } else {
+            count = levelFirst = levelNext = levelPrev = null;
+        }
+    }
 
-            discharge(g, u, s, t);
+    /**
+     * Global relabeling is charged against the size of the residual network: sets the work threshold for
+     * {@code arcs} residual arcs, and creates the pool for parallel reverse searches if requested and allowed.
+     */
+    private void startGlobalRelabeling(int n, long arcs, boolean parallel) {
+        globalRelabelThreshold = (long) Math.ceil(globalRelabelFrequency * (6.0 * n + arcs));
+        if (parallel && threads > 1 && n >= ParallelLevelBfs.MIN_VERTICES) {
+            pool = new ForkJoinPool(threads);
+            parallelBfs = new ParallelLevelBfs(pool);
+        }
+    }
+
+    /**
+     * Discharges active vertices until none of height below {@code heightLimit} remains. Vertices at or above
+     * the limit are dropped from the active set (they keep their excess).
+     */
+    private void dischargeActive(Graph g, int s, int t, int heightLimit) {
+        int u;
+        while ((u = nextActive()) >= 0) {
+            if (u == s || u == t || height[u] >= heightLimit) continue;
+
+            discharge(g, u, s, t, heightLimit);
 
             // If u still has excess, keep it active.
-            if (excess[u] > 0) {
-                activeQ.add(u);
-                inQ[u] = true;
+            if (excess[u] > 0 && height[u] < heightLimit) {
+                activate(u);
+            }
+
+            if (relabelWork >= globalRelabelThreshold) {
+                globalRelabel(g, s, t);
+                relabelWork = 0;
             }
         }
+    }
 
-        // With a valid preflow and no active vertices, the excess at t equals the max flow value.
-        return excess[t];
+    /**
+     * Drops the selection and gap structures and the pool after a run (heights and excess stay readable), and
+     * records its {@link Statistics}.
+     */
+    private void releaseWorkspace() {
+        ring = bucket = next = prev = count = levelFirst = levelNext = levelPrev = null;
+        parallelBfs = null;
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        statistics = new Statistics(pushes, relabels, globalRelabels, globalRelabelNanos,
+                System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Marks every vertex that cannot reach {@code t} over residual arcs (reverse BFS from t).
+     */
+    private boolean[] sourceSide(Graph g, int t) {
+        final int n = g.size();
+        boolean[] reachesT = new boolean[n];
+        int[] queue = new int[n];
+        int qHead = 0, qTail = 0;
+
+        reachesT[t] = true;
+        queue[qTail++] = t;
+        while (qHead < qTail) {
+            int w = queue[qHead++];
+            for (Edge e : g.adj(w)) {
+                int v = e.to;
+                if (!reachesT[v] && g.adj(v).get(e.rev).cap > 0) {
+                    reachesT[v] = true;
+                    queue[qTail++] = v;
+                }
+            }
+        }
+
+        boolean[] inS = new boolean[n];
+        for (int v = 0; v < n; v++) inS[v] = !reachesT[v];
+        return inS;
     }
 
     /**
@@ -263,6 +622,7 @@ public class GoldbergTarjan {
     private void push(Graph g, int u, Edge e, int s, int t) {
         long send = Math.min(excess[u], e.cap);
         if (send <= 0) return;
+        pushes++;
 
         Edge rev = g.adj(e.to).get(e.rev);
 
@@ -276,9 +636,57 @@ public class GoldbergTarjan {
         excess[e.to] += send;
 
         if (e.to != s && e.to != t && !inQ[e.to] && excess[e.to] > 0) {
-            activeQ.add(e.to);
-            inQ[e.to] = true;
+            activate(e.to);
+        }
+    }
+
+    /**
+     * Marks {@code v} active: appends it to the FIFO queue, or prepends it to the bucket of its height.
+     */
+    private void activate(int v) {
+        inQ[v] = true;
+        if (ring != null) {
+            int i = ringHead + ringSize++;
+            ring[i < ring.length ? i : i - ring.length] = v;
+            return;
+        }
+        int h = height[v];
+        int first = bucket[h];
+        next[v] = first;
+        prev[v] = -1;
+        if (first >= 0) prev[first] = v;
+        bucket[h] = v;
+        if (h > maxActive) maxActive = h;
+    }
+
+    /**
+     * Removes and returns the next active vertex (FIFO head, or a vertex of maximum height), or -1 if none.
+     */
+    private int nextActive() {
+        int u;
+        if (ring != null) {
+            if (ringSize == 0) return -1;
+            u = ring[ringHead];
+            if (++ringHead == ring.length) ringHead = 0;
+            ringSize--;
+        } else {
+            while (maxActive >= 0 && bucket[maxActive] < 0) maxActive--;
+            if (maxActive < 0) return -1;
+            u = bucket[maxActive];
+            unlink(u);
         }
+        inQ[u] = false;
+        return u;
+    }
+
+    /**
+     * Highest-label mode: removes {@code v} from the bucket list of its current height.
+     */
+    private void unlink(int v) {
+        int p = prev[v], nx = next[v];
+        if (p >= 0) next[p] = nx;
+        else bucket[height[v]] = nx;
+        if (nx >= 0) prev[nx] = p;
     }
 
     /**
@@ -290,14 +698,165 @@ public class GoldbergTarjan {
             if (e.cap > 0) minH = Math.min(minH, height[e.to]);
         }
         // Assumes relabel is only called when there exists at least one outgoing residual edge.
-        height[u] = minH + 1;
+        setRelabelled(u, minH + 1, g.adj(u).size());
     }
 
     /**
-     * Discharge (non-visual version).
+     * Second half of a relabel: sets the new height of {@code u}, charges the relabel work for its
+     * {@code degree} arcs, and updates the gap counts (running the gap heuristic if a height emptied).
      */
-    private void discharge(Graph g, int u, int s, int t) {
-        while (excess[u] > 0) {
+    private void setRelabelled(int u, int newH, int degree) {
+        int oldH = height[u];
+        height[u] = newH;
+        relabelWork += degree + RELABEL_WORK;
+        relabels++;
+
+        final int n = height.length;
+        if (count != null && oldH < n) {
+            removeFromLevel(u, oldH);
+            if (newH < n) addToLevel(u, newH);
+            if (count[oldH] == 0) gap(oldH);
+        }
+    }
+
+    /**
+     * Gap heuristic: height {@code h} just became empty, so every vertex with {@code h < height < n} is cut off
+     * from t and is lifted to n+1 (its current arc is reset; in highest-label mode it is re-bucketed if active).
+     *
+     * <p>Heights below n are only ever entered next to an occupied height (relabel to a neighbour's height + 1,
+     * global relabel to BFS distances), and a height that empties triggers a gap at once, so the occupied
+     * heights form one range from 0. The walk over the levels above {@code h} can thus stop at the first
+     * empty one.
+     */
+    private void gap(int h) {
+        final int n = height.length;
+        for (int hh = h + 1; hh <= maxLevel && levelFirst[hh] >= 0; hh++) {
+            for (int v = levelFirst[hh]; v >= 0; v = levelNext[v]) {
+                boolean active = bucket != null && inQ[v];
+                if (active) unlink(v);
+                height[v] = n + 1;
+                ptr[v] = 0;
+                if (active) {
+                    inQ[v] = false;
+                    activate(v);
+                }
+            }
+            levelFirst[hh] = -1;
+            count[hh] = 0;
+        }
+        maxLevel = h - 1;
+    }
+
+    /**
+     * Gap heuristic: prepends {@code v} to the list of height {@code h} (below n).
+     */
+    private void addToLevel(int v, int h) {
+        int first = levelFirst[h];
+        levelNext[v] = first;
+        levelPrev[v] = -1;
+        if (first >= 0) levelPrev[first] = v;
+        levelFirst[h] = v;
+        count[h]++;
+        if (h > maxLevel) maxLevel = h;
+    }
+
+    /**
+     * Gap heuristic: removes {@code v} from the list of height {@code h} (below n).
+     */
+    private void removeFromLevel(int v, int h) {
+        int p = levelPrev[v], nx = levelNext[v];
+        if (p >= 0) levelNext[p] = nx;
+        else levelFirst[h] = nx;
+        if (nx >= 0) levelPrev[nx] = p;
+        count[h]--;
+    }
+
+    /**
+     * Gap heuristic: rebuilds counts and lists from the current heights.
+     */
+    private void rebuildLevels() {
+        final int n = height.length;
+        Arrays.fill(count, 0);
+        Arrays.fill(levelFirst, -1);
+        maxLevel = -1;
+        for (int v = 0; v < n; v++) {
+            if (height[v] < n) addToLevel(v, height[v]);
+        }
+    }
+
+    /**
+     * Global relabel: sets every height to the exact residual distance to t, or to n plus the residual
+     * distance to s for vertices that cannot reach t. Vertices reaching neither get 2n-1 (they can never
+     * become active). Current arcs are reset, and in highest-label mode the buckets are rebuilt.
+     */
+    private void globalRelabel(Graph g, int s, int t) {
+        final long start = System.nanoTime();
+        final int n = g.size();
+        Arrays.fill(height, -1);
+
+        height[t] = 0;
+        height[s] = n;
+        if (parallelBfs != null) {
+            parallelBfs.reverse(g, t, height);
+            parallelBfs.reverse(g, s, height);
+        } else {
+            int[] queue = new int[n];
+            reverseBfs(g, t, queue);
+            reverseBfs(g, s, queue);
+        }
+        finishGlobalRelabel(start);
+    }
+
+    /**
+     * Common tail of a global relabel, after the reverse searches have labelled every vertex they reached:
+     * assigns 2n-1 to the rest, resets current arcs, recounts heights for the gap heuristic, rebuilds the
+     * buckets and records the time since {@code start}.
+     */
+    private void finishGlobalRelabel(long start) {
+        final int n = height.length;
+        final int unreached = 2 * n - 1;
+        for (int v = 0; v < n; v++) {
+            if (height[v] < 0) height[v] = unreached;
+        }
+        Arrays.fill(ptr, 0);
+
+        if (count != null) rebuildLevels();
+
+        if (bucket != null) {
+            Arrays.fill(bucket, -1);
+            maxActive = -1;
+            for (int v = 0; v < n; v++) {
+                if (inQ[v]) activate(v);
+            }
+        }
+        globalRelabels++;
+        globalRelabelNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * BFS from the already labelled {@code root} backwards over residual arcs: an unlabelled v with a
+     * residual arc v->w gets {@code height[w] + 1}.
+     */
+    private void reverseBfs(Graph g, int root, int[] queue) {
+        int qHead = 0, qTail = 0;
+        queue[qTail++] = root;
+        while (qHead < qTail) {
+            int w = queue[qHead++];
+            for (Edge e : g.adj(w)) {
+                int v = e.to;
+                if (height[v] < 0 && g.adj(v).get(e.rev).cap > 0) {
+                    height[v] = height[w] + 1;
+                    queue[qTail++] = v;
+                }
+            }
+        }
+    }
+
+    /**
+     * Discharge (non-visual version); stops early once u reaches {@code heightLimit}.
+     */
+    private void discharge(Graph g, int u, int s, int t, int heightLimit) {
+        while (excess[u] > 0 && height[u] < heightLimit) {
             if (ptr[u] >= g.adj(u).size()) {
                 relabel(g, u);
                 ptr[u] = 0;
@@ -408,4 +967,296 @@ public class GoldbergTarjan {
         }
         return vis;
     }
+
+    /* ===================== Array-based variant (CsrGraph) ===================== */
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t} on a {@link CsrGraph} (no visualization).
+     *
+     * <p>Same push-relabel as {@link #maxFlow(Graph, int, int)}, including the selection rule, global
+     * relabeling (parallel with {@link #setThreads(int)}) and the gap heuristic; {@link #statistics()} reports
+     * the run. Arcs are accessed through the flat CSR arrays.
+     *
+     * @param g CSR residual network (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(CsrGraph g, int s, int t) {
+        try {
+            initPreflow(g, s, t);
+            dischargeActive(g, s, t);
+        } finally {
+            releaseWorkspace();
+        }
+        return excess[t];
+    }
+
+    /**
+     * {@link #initPreflow(Graph, int, int)} on a {@link CsrGraph}.
+     */
+    private void initPreflow(CsrGraph g, int s, int t) {
+        final int n = g.size();
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        final long[] flow = g.flow();
+        initWorkspace(n, s);
+
+        for (int a = head[s]; a < head[s + 1]; a++) {
+            if (cap[a] <= 0) continue;
+
+            long send = cap[a];
+            int v = to[a];
+            int r = rev[a];
+            cap[a] -= send;
+            cap[r] += send;
+            flow[a] += send;
+            flow[r] -= send;
+            excess[s] -= send;
+            excess[v] += send;
+
+            if (v != s && v != t && !inQ[v] && excess[v] > 0) activate(v);
+        }
+
+        if (globalRelabelFrequency > 0) {
+            startGlobalRelabeling(n, head[n], true);
+            globalRelabel(g, s, t);
+        }
+        relabelWork = 0;
+    }
+
+    /**
+     * Discharges active vertices until none is left ({@code ptr[u]} is an offset from {@code head[u]}).
+     */
+    private void dischargeActive(CsrGraph g, int s, int t) {
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        final long[] flow = g.flow();
+
+        int u;
+        while ((u = nextActive()) >= 0) {
+            if (u == s || u == t) continue;
+
+            final int begin = head[u], end = head[u + 1];
+            while (excess[u] > 0) {
+                int a = begin + ptr[u];
+                if (a >= end) {
+                    relabel(g, u);
+                    ptr[u] = 0;
+                    continue;
+                }
+
+                int v = to[a];
+                if (cap[a] > 0 && height[u] == height[v] + 1) {
+                    long send = Math.min(excess[u], cap[a]);
+                    int r = rev[a];
+                    cap[a] -= send;
+                    cap[r] += send;
+                    flow[a] += send;
+                    flow[r] -= send;
+                    excess[u] -= send;
+                    excess[v] += send;
+                    pushes++;
+
+                    if (v != s && v != t && !inQ[v] && excess[v] > 0) activate(v);
+                } else {
+                    ptr[u]++;
+                }
+            }
+
+            if (relabelWork >= globalRelabelThreshold) {
+                globalRelabel(g, s, t);
+                relabelWork = 0;
+            }
+        }
+    }
+
+    /**
+     * Relabel operation on a {@link CsrGraph}.
+     */
+    private void relabel(CsrGraph g, int u) {
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final long[] cap = g.cap();
+        int minH = Integer.MAX_VALUE;
+        for (int a = head[u]; a < head[u + 1]; a++) {
+            if (cap[a] > 0) minH = Math.min(minH, height[to[a]]);
+        }
+        setRelabelled(u, minH + 1, head[u + 1] - head[u]);
+    }
+
+    /**
+     * {@link #globalRelabel(Graph, int, int)} on a {@link CsrGraph}.
+     */
+    private void globalRelabel(CsrGraph g, int s, int t) {
+        final long start = System.nanoTime();
+        final int n = g.size();
+        Arrays.fill(height, -1);
+
+        height[t] = 0;
+        height[s] = n;
+        if (parallelBfs != null) {
+            parallelBfs.reverse(g, t, height);
+            parallelBfs.reverse(g, s, height);
+        } else {
+            int[] queue = new int[n];
+            reverseBfs(g, t, queue);
+            reverseBfs(g, s, queue);
+        }
+        finishGlobalRelabel(start);
+    }
+
+    /**
+     * {@link #reverseBfs(Graph, int, int[])} on a {@link CsrGraph}.
+     */
+    private void reverseBfs(CsrGraph g, int root, int[] queue) {
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        int qHead = 0, qTail = 0;
+        queue[qTail++] = root;
+        while (qHead < qTail) {
+            int w = queue[qHead++];
+            for (int a = head[w]; a < head[w + 1]; a++) {
+                int v = to[a];
+                if (height[v] < 0 && cap[rev[a]] > 0) {
+                    height[v] = height[w] + 1;
+                    queue[qTail++] = v;
+                }
+            }
+        }
+    }
+
+    /* ===================== Off-heap variant (OffHeapGraph) ===================== */
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t} on an {@link OffHeapGraph} (no visualization).
+     *
+     * <p>Same push-relabel and options as {@link #maxFlow(CsrGraph, int, int)}, except that global relabeling
+     * is always serial. Vertex state (heights, excess, current arcs, active lists) stays on the heap, arc data
+     * is accessed off-heap.
+     *
+     * @param g off-heap residual network (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(OffHeapGraph g, int s, int t) {
+        try {
+            initPreflow(g, s, t);
+            dischargeActive(g, s, t);
+        } finally {
+            releaseWorkspace();
+        }
+        return excess[t];
+    }
+
+    /**
+     * {@link #initPreflow(Graph, int, int)} on an {@link OffHeapGraph}.
+     */
+    private void initPreflow(OffHeapGraph g, int s, int t) {
+        final int n = g.size();
+        initWorkspace(n, s);
+
+        for (int a = g.head(s), end = g.head(s + 1); a < end; a++) {
+            long send = g.cap(a);
+            if (send <= 0) continue;
+
+            int v = g.to(a);
+            g.push(a, send);
+            excess[s] -= send;
+            excess[v] += send;
+
+            if (v != s && v != t && !inQ[v] && excess[v] > 0) activate(v);
+        }
+
+        if (globalRelabelFrequency > 0) {
+            startGlobalRelabeling(n, g.arcCount(), false);
+            globalRelabel(g, s, t);
+        }
+        relabelWork = 0;
+    }
+
+    /**
+     * {@link #dischargeActive(CsrGraph, int, int)} on an {@link OffHeapGraph}.
+     */
+    private void dischargeActive(OffHeapGraph g, int s, int t) {
+        int u;
+        while ((u = nextActive()) >= 0) {
+            if (u == s || u == t) continue;
+
+            final int begin = g.head(u), end = g.head(u + 1);
+            while (excess[u] > 0) {
+                int a = begin + ptr[u];
+                if (a >= end) {
+                    // Relabel u.
+                    int minH = Integer.MAX_VALUE;
+                    for (int b = begin; b < end; b++) {
+                        if (g.cap(b) > 0) minH = Math.min(minH, height[g.to(b)]);
+                    }
+                    setRelabelled(u, minH + 1, end - begin);
+                    ptr[u] = 0;
+                    continue;
+                }
+
+                int v = g.to(a);
+                long c = g.cap(a);
+                if (c > 0 && height[u] == height[v] + 1) {
+                    long send = Math.min(excess[u], c);
+                    g.push(a, send);
+                    excess[u] -= send;
+                    excess[v] += send;
+                    pushes++;
+
+                    if (v != s && v != t && !inQ[v] && excess[v] > 0) activate(v);
+                } else {
+                    ptr[u]++;
+                }
+            }
+
+            if (relabelWork >= globalRelabelThreshold) {
+                globalRelabel(g, s, t);
+                relabelWork = 0;
+            }
+        }
+    }
+
+    /**
+     * {@link #globalRelabel(Graph, int, int)} on an {@link OffHeapGraph} (serial reverse BFS).
+     */
+    private void globalRelabel(OffHeapGraph g, int s, int t) {
+        final long start = System.nanoTime();
+        final int n = g.size();
+        Arrays.fill(height, -1);
+
+        height[t] = 0;
+        height[s] = n;
+        int[] queue = new int[n];
+        reverseBfs(g, t, queue);
+        reverseBfs(g, s, queue);
+        finishGlobalRelabel(start);
+    }
+
+    /**
+     * {@link #reverseBfs(Graph, int, int[])} on an {@link OffHeapGraph}.
+     */
+    private void reverseBfs(OffHeapGraph g, int root, int[] queue) {
+        int qHead = 0, qTail = 0;
+        queue[qTail++] = root;
+        while (qHead < qTail) {
+            int w = queue[qHead++];
+            for (int a = g.head(w), end = g.head(w + 1); a < end; a++) {
+                int v = g.to(a);
+                if (height[v] < 0 && g.cap(g.rev(a)) > 0) {
+                    height[v] = height[w] + 1;
+                    queue[qTail++] = v;
+                }
+            }
+        }
+    }
 }
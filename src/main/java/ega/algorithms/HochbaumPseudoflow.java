@@ -0,0 +1,508 @@
+package ega.algorithms;
+
+import ega.core.Edge;
+import ega.core.Graph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hochbaum's pseudoflow algorithm (HPF) for computing a minimum s-t cut and a maximum s-t flow.
+ *
+ * <p>Core ideas:
+ * <ul>
+ *   <li>The algorithm starts from a <b>pseudoflow</b>: every arc out of s and every arc into t is saturated,
+ *       all other arcs are empty. A vertex may therefore have positive excess or a deficit.</li>
+ *   <li>The vertices other than s and t are covered by a forest of trees; only roots carry excess. A tree is
+ *       <b>strong</b> if its root has positive excess, otherwise <b>weak</b>.</li>
+ *   <li>A strong root of label {@code l} is processed by searching its tree (vertices of label l only) for a
+ *       residual <b>merger arc</b> into a vertex of label {@code l-1}. If one is found, the strong tree is
+ *       re-rooted at the arc's tail, hung below the other end, and the excess is pushed towards the new root;
+ *       arcs that saturate on the way split off new strong trees. If none is found, the searched vertices are
+ *       relabelled to {@code l+1}.</li>
+ *   <li>When label {@code l-1} is empty (a gap), no strong tree at label {@code l} can reach a weak vertex
+ *       any more; those trees are final.</li>
+ * </ul>
+ * When no strong root can make progress, the strong vertices form the source side of a minimum cut
+ * ({@link #minCut(Graph, int, int, boolean)}). A separate <b>flow recovery</b> phase then returns the
+ * remaining excess to s and the deficits to t, producing a feasible maximum flow.
+ *
+ * <p>Strong roots are picked per label bucket, either lowest label first or highest label first (see
+ * {@link Selection}). Arc scanning uses a current-arc pointer per vertex that is only reset on relabel.
+ */
+public class HochbaumPseudoflow {
+
+    /**
+     * Order in which strong roots are processed.
+     */
+    public enum Selection {
+        /** Always process a strong root of minimum label; stops at the first gap. */
+        LOWEST_LABEL,
+        /** Always process a strong root of maximum label; trees above a gap are set aside. */
+        HIGHEST_LABEL
+    }
+
+    /** Strong-root selection rule. */
+    private Selection selection = Selection.HIGHEST_LABEL;
+
+    /** Vertex labels; strong trees set aside at a gap are lifted to n. */
+    private int[] label;
+
+    /** Excess per vertex (non-zero only at tree roots until flow recovery). */
+    private long[] excess;
+
+    /** Number of vertices per label below n (s and t excluded). */
+    private int[] count;
+
+    /** Tree structure: parent vertex (-1 for roots) and the index in {@code adj(v)} of the arc to it. */
+    private int[] parent, parentArc;
+
+    /** Intrusive child lists (first child, next/previous sibling; -1 terminates). */
+    private int[] firstChild, nextSibling, prevSibling;
+
+    /** Next child to descend into during {@link #processRoot}. */
+    private int[] nextScan;
+
+    /** Current-arc pointer for merger-arc search, reset on relabel. */
+    private int[] nextArc;
+
+    /** FIFO buckets of strong roots per label (-1 terminates). */
+    private int[] bucketHead, bucketTail, bucketNext;
+
+    /** Lowest or highest non-empty bucket (a bound, maintained lazily). */
+    private int bucketCursor;
+
+    /**
+     * Sets the strong-root selection rule (default {@link Selection#HIGHEST_LABEL}).
+     */
+    public void setSelection(Selection selection) {
+        if (selection == null) throw new IllegalArgumentException("selection must not be null.");
+        this.selection = selection;
+    }
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t}: pseudoflow phase followed by flow recovery.
+     *
+     * @param g residual network representation (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(Graph g, int s, int t) {
+        if (s == t) return 0L;
+        initPseudoflow(g, s, t);
+        runPseudoflow(g, s, t);
+        recoverFlow(g, s, t);
+        releaseWorkspace();
+        return netInflow(g, t);
+    }
+
+    /**
+     * Computes a minimum s-t cut. The cut is known at the end of the pseudoflow phase: its source side is s
+     * plus every vertex of a strong tree. If {@code recoverFlow} is set, flow recovery runs as well, so the
+     * residual network afterwards holds a maximum flow that satisfies
+     * {@link ega.core.FlowValidators#flowConservation(Graph, int, int)}; otherwise it holds the pseudoflow.
+     *
+     * @param g           residual network representation (modified in-place)
+     * @param s           source node index
+     * @param t           sink node index
+     * @param recoverFlow whether to run flow recovery
+     * @return cut value and source side
+     */
+    public GoldbergTarjan.MinCut minCut(Graph g, int s, int t, boolean recoverFlow) {
+        final int n = g.size();
+        boolean[] inS = new boolean[n];
+        if (s == t) return new GoldbergTarjan.MinCut(0L, inS);
+
+        initPseudoflow(g, s, t);
+        runPseudoflow(g, s, t);
+
+        // Strong vertices: a root with positive excess decides its whole tree (memoized along the way).
+        byte[] strong = new byte[n]; // 0 unknown, 1 strong, 2 weak
+        int[] path = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (v == s || v == t || strong[v] != 0) continue;
+            int len = 0, r = v;
+            while (strong[r] == 0 && parent[r] >= 0) {
+                path[len++] = r;
+                r = parent[r];
+            }
+            byte mark = strong[r] != 0 ? strong[r] : (excess[r] > 0 ? (byte) 1 : (byte) 2);
+            strong[r] = mark;
+            while (len > 0) strong[path[--len]] = mark;
+        }
+        for (int v = 0; v < n; v++) inS[v] = strong[v] == 1;
+        inS[s] = true;
+
+        long value = 0L;
+        for (int u = 0; u < n; u++) {
+            if (!inS[u]) continue;
+            for (Edge e : g.adj(u)) {
+                if (!inS[e.to]) value += e.origCap;
+            }
+        }
+
+        if (recoverFlow) recoverFlow(g, s, t);
+        releaseWorkspace();
+        return new GoldbergTarjan.MinCut(value, inS);
+    }
+
+    /**
+     * Allocates the per-run state, saturates every arc out of s and into t, and puts every vertex with
+     * positive excess into the strong bucket of label 1 (all other vertices get label 0).
+     */
+    private void initPseudoflow(Graph g, int s, int t) {
+        final int n = g.size();
+        label = new int[n];
+        excess = new long[n];
+        count = new int[n + 1];
+        parent = new int[n];
+        parentArc = new int[n];
+        firstChild = new int[n];
+        nextSibling = new int[n];
+        prevSibling = new int[n];
+        nextScan = new int[n];
+        nextArc = new int[n];
+        bucketHead = new int[n + 1];
+        bucketTail = new int[n + 1];
+        bucketNext = new int[n];
+        Arrays.fill(parent, -1);
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(bucketHead, -1);
+        Arrays.fill(bucketTail, -1);
+        bucketCursor = selection == Selection.HIGHEST_LABEL ? 0 : n;
+
+        for (Edge e : g.adj(s)) {
+            if (e.cap > 0 && e.to != s) {
+                if (e.to != t) excess[e.to] += e.cap;
+                push(g, e, e.cap);
+            }
+        }
+        for (Edge e : g.adj(t)) {
+            Edge in = g.adj(e.to).get(e.rev);
+            if (in.cap > 0 && e.to != t) {
+                excess[e.to] -= in.cap;
+                push(g, in, in.cap);
+            }
+        }
+
+        for (int v = 0; v < n; v++) {
+            if (v == s || v == t) continue;
+            if (excess[v] > 0) {
+                label[v] = 1;
+                addStrongRoot(v);
+            }
+            count[label[v]]++;
+        }
+    }
+
+    /**
+     * Pseudoflow phase: processes strong roots until none can make progress.
+     */
+    private void runPseudoflow(Graph g, int s, int t) {
+        int r;
+        while ((r = nextStrongRoot()) >= 0) {
+            processRoot(g, r, s, t);
+        }
+    }
+
+    /**
+     * Removes and returns the next strong root to process, or -1 if the pseudoflow phase is done. A root of
+     * label {@code l >= 1} with label {@code l-1} empty is behind a gap: in lowest-label mode this ends the
+     * phase, in highest-label mode the bucket's trees are lifted to n and skipped.
+     */
+    private int nextStrongRoot() {
+        final int n = label.length;
+        if (selection == Selection.HIGHEST_LABEL) {
+            for (int l = bucketCursor; l >= 0; l--) {
+                while (bucketHead[l] >= 0) {
+                    if (l >= 1 && count[l - 1] == 0) {
+                        liftTree(popStrongRoot(l), n);
+                        continue;
+                    }
+                    bucketCursor = l;
+                    return popStrongRoot(l);
+                }
+            }
+            bucketCursor = 0;
+        } else {
+            for (int l = bucketCursor; l < n; l++) {
+                if (bucketHead[l] < 0) continue;
+                bucketCursor = l;
+                if (l >= 1 && count[l - 1] == 0) return -1;
+                return popStrongRoot(l);
+            }
+            bucketCursor = n;
+        }
+        return -1;
+    }
+
+    /**
+     * Searches the label-{@code l} part of the strong tree rooted at {@code r} depth-first for a merger arc.
+     * On success the trees are merged and the excess is pushed; otherwise every searched vertex is relabelled
+     * (children before parents) and {@code r} goes back into its bucket.
+     */
+    private void processRoot(Graph g, int r, int s, int t) {
+        int u = r;
+        nextScan[r] = firstChild[r];
+        if (tryMerge(g, r, u, s, t)) return;
+        checkChildren(u);
+
+        while (u >= 0) {
+            while (nextScan[u] >= 0) {
+                int c = nextScan[u];
+                nextScan[u] = nextSibling[c];
+                u = c;
+                nextScan[u] = firstChild[u];
+                if (tryMerge(g, r, u, s, t)) return;
+                checkChildren(u);
+            }
+            u = (u == r) ? -1 : parent[u];
+            if (u >= 0) checkChildren(u);
+        }
+        addStrongRoot(r);
+    }
+
+    /**
+     * Looks for a residual arc from {@code u} into a vertex of label {@code label[u]-1} (s and t excluded),
+     * starting at the current arc. If found, merges and pushes the excess of {@code r}.
+     */
+    private boolean tryMerge(Graph g, int r, int u, int s, int t) {
+        List<Edge> adj = g.adj(u);
+        final int want = label[u] - 1;
+        for (int i = nextArc[u]; i < adj.size(); i++) {
+            Edge e = adj.get(i);
+            int w = e.to;
+            if (e.cap > 0 && label[w] == want && w != s && w != t) {
+                nextArc[u] = i;
+                merge(g, u, i);
+                pushExcess(g, r);
+                return true;
+            }
+        }
+        nextArc[u] = adj.size();
+        return false;
+    }
+
+    /**
+     * Advances {@code nextScan[u]} to the next child with the same label as {@code u}; if there is none,
+     * relabels {@code u} to {@code label[u]+1}.
+     */
+    private void checkChildren(int u) {
+        for (; nextScan[u] >= 0; nextScan[u] = nextSibling[nextScan[u]]) {
+            if (label[nextScan[u]] == label[u]) return;
+        }
+        final int n = label.length;
+        if (label[u] < n) count[label[u]]--;
+        label[u]++;
+        if (label[u] < n) count[label[u]]++;
+        nextArc[u] = 0;
+    }
+
+    /**
+     * Hangs the strong tree containing {@code u} below {@code w = adj(u).get(arc).to}: the tree path from
+     * {@code u} to its root is reversed so that {@code u} becomes the child of {@code w}.
+     */
+    private void merge(Graph g, int u, int arc) {
+        int newParent = g.adj(u).get(arc).to;
+        int newArc = arc;
+        int cur = u;
+        while (parent[cur] >= 0) {
+            int oldParent = parent[cur];
+            int oldArc = parentArc[cur];
+            removeChild(oldParent, cur);
+            addChild(newParent, cur, newArc);
+            newArc = g.adj(cur).get(oldArc).rev;
+            newParent = cur;
+            cur = oldParent;
+        }
+        addChild(newParent, cur, newArc);
+    }
+
+    /**
+     * Pushes the excess of {@code r} towards the root of its (merged) tree. An arc whose residual capacity
+     * is too small is saturated and cut, and its child becomes a new strong root.
+     */
+    private void pushExcess(Graph g, int r) {
+        int cur = r;
+        long prevExcess = 1;
+        while (excess[cur] > 0 && parent[cur] >= 0) {
+            int p = parent[cur];
+            prevExcess = excess[p];
+            Edge e = g.adj(cur).get(parentArc[cur]);
+            if (e.cap >= excess[cur]) {
+                push(g, e, excess[cur]);
+                excess[p] += excess[cur];
+                excess[cur] = 0;
+            } else {
+                long send = e.cap;
+                push(g, e, send);
+                excess[p] += send;
+                excess[cur] -= send;
+                removeChild(p, cur);
+                addStrongRoot(cur);
+            }
+            cur = p;
+        }
+        // A weak root that received enough excess turns strong.
+        if (excess[cur] > 0 && prevExcess <= 0) addStrongRoot(cur);
+    }
+
+    /**
+     * Lifts every vertex of the tree rooted at {@code r} to label {@code n}.
+     */
+    private void liftTree(int r, int n) {
+        int v = r;
+        while (true) {
+            if (label[v] < n) count[label[v]]--;
+            label[v] = n;
+            if (firstChild[v] >= 0) {
+                v = firstChild[v];
+                continue;
+            }
+            while (v != r && nextSibling[v] < 0) v = parent[v];
+            if (v == r) return;
+            v = nextSibling[v];
+        }
+    }
+
+    /**
+     * Flow recovery: returns every deficit to t and every excess to s, turning the pseudoflow into a feasible
+     * flow without changing any arc of the minimum cut.
+     *
+     * <p>A deficit only remains at a root of a weak tree that never received enough excess; such a root has
+     * only ever sent flow into t, so the deficit is cancelled on its arcs into t. Excess is returned by
+     * walking backwards along arcs that carry flow into the current vertex until s is reached; flow cycles
+     * met on the way are cancelled.
+     */
+    private void recoverFlow(Graph g, int s, int t) {
+        final int n = g.size();
+
+        for (int v = 0; v < n; v++) {
+            if (excess[v] >= 0 || v == s || v == t) continue;
+            for (Edge e : g.adj(v)) {
+                if (excess[v] == 0) break;
+                if (e.to != t || e.flow <= 0) continue;
+                long back = Math.min(-excess[v], e.flow);
+                push(g, g.adj(t).get(e.rev), back);
+                excess[v] += back;
+            }
+        }
+
+        int[] cur = new int[n];
+        int[] path = new int[n];
+        int[] pathArc = new int[n];
+        int[] pos = new int[n];
+        Arrays.fill(pos, -1);
+
+        for (int v = 0; v < n; v++) {
+            if (v == s || v == t) continue;
+            while (excess[v] > 0) {
+                int depth = 0;
+                path[0] = v;
+                pos[v] = 0;
+                while (true) {
+                    int u = path[depth];
+                    List<Edge> adj = g.adj(u);
+                    while (cur[u] < adj.size() && adj.get(cur[u]).flow >= 0) cur[u]++;
+                    if (cur[u] == adj.size()) {
+                        throw new IllegalStateException("Vertex " + u + " has excess but no inflow.");
+                    }
+                    pathArc[depth] = cur[u];
+                    int x = adj.get(cur[u]).to;
+
+                    if (x == s) {
+                        // Cancel flow along v <- ... <- u <- s.
+                        long delta = excess[v];
+                        for (int i = 0; i <= depth; i++) {
+                            delta = Math.min(delta, -g.adj(path[i]).get(pathArc[i]).flow);
+                        }
+                        for (int i = 0; i <= depth; i++) push(g, g.adj(path[i]).get(pathArc[i]), delta);
+                        excess[v] -= delta;
+                        for (int i = 0; i <= depth; i++) pos[path[i]] = -1;
+                        break;
+                    }
+                    if (pos[x] >= 0) {
+                        // Cancel the flow cycle x <- ... <- u <- x and resume at x.
+                        int k = pos[x];
+                        long delta = Long.MAX_VALUE;
+                        for (int i = k; i <= depth; i++) {
+                            delta = Math.min(delta, -g.adj(path[i]).get(pathArc[i]).flow);
+                        }
+                        for (int i = k; i <= depth; i++) push(g, g.adj(path[i]).get(pathArc[i]), delta);
+                        for (int i = k + 1; i <= depth; i++) pos[path[i]] = -1;
+                        depth = k;
+                        continue;
+                    }
+                    path[++depth] = x;
+                    pos[x] = depth;
+                }
+            }
+        }
+    }
+
+    /** Drops the per-run state after a run. */
+    private void releaseWorkspace() {
+        label = null;
+        excess = null;
+        count = null;
+        parent = parentArc = null;
+        firstChild = nextSibling = prevSibling = null;
+        nextScan = nextArc = null;
+        bucketHead = bucketTail = bucketNext = null;
+    }
+
+    /* ===================== Helpers ===================== */
+
+    /** Appends root {@code v} to the strong bucket of its label (roots lifted to n are final and skipped). */
+    private void addStrongRoot(int v) {
+        int l = label[v];
+        if (l >= label.length) return;
+        bucketNext[v] = -1;
+        if (bucketTail[l] >= 0) bucketNext[bucketTail[l]] = v;
+        else bucketHead[l] = v;
+        bucketTail[l] = v;
+        if (selection == Selection.HIGHEST_LABEL ? l > bucketCursor : l < bucketCursor) bucketCursor = l;
+    }
+
+    private int popStrongRoot(int l) {
+        int v = bucketHead[l];
+        bucketHead[l] = bucketNext[v];
+        if (bucketHead[l] < 0) bucketTail[l] = -1;
+        return v;
+    }
+
+    /** Makes {@code c} a child of {@code p} via arc {@code adj(c).get(arc)}. */
+    private void addChild(int p, int c, int arc) {
+        parent[c] = p;
+        parentArc[c] = arc;
+        prevSibling[c] = -1;
+        nextSibling[c] = firstChild[p];
+        if (firstChild[p] >= 0) prevSibling[firstChild[p]] = c;
+        firstChild[p] = c;
+    }
+
+    /** Detaches {@code c} from its parent {@code p}; {@code c} becomes a root. */
+    private void removeChild(int p, int c) {
+        if (prevSibling[c] >= 0) nextSibling[prevSibling[c]] = nextSibling[c];
+        else firstChild[p] = nextSibling[c];
+        if (nextSibling[c] >= 0) prevSibling[nextSibling[c]] = prevSibling[c];
+        parent[c] = -1;
+    }
+
+    /** Pushes {@code delta} along arc {@code e} and updates its reverse arc. */
+    private static void push(Graph g, Edge e, long delta) {
+        Edge rev = g.adj(e.to).get(e.rev);
+        e.cap -= delta;
+        e.flow += delta;
+        rev.cap += delta;
+        rev.flow -= delta;
+    }
+
+    /** @return net flow into {@code t} */
+    private static long netInflow(Graph g, int t) {
+        long in = 0L;
+        for (Edge e : g.adj(t)) in -= e.flow;
+        return in;
+    }
+}
@@ -0,0 +1,231 @@
+package ega.algorithms;
+
+import ega.core.CsrGraph;
+import ega.core.Edge;
+import ega.core.Graph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ISAP (improved shortest augmenting path) for computing a maximum s-t flow.
+ *
+ * <p>Key idea:
+ * Like {@link EdmondsKarp}, flow is sent along shortest augmenting paths, but the distances are not recomputed
+ * by a BFS per augmentation. Instead every vertex keeps a distance label {@code dist[v]} (residual distance to
+ * t, computed once by a reverse BFS) and the path is grown arc by arc:
+ * <ul>
+ *   <li><b>Advance</b> from the path tip u along an admissible arc (residual, {@code dist[u] == dist[v] + 1}),
+ *       starting at the current arc {@code cur[u]}.</li>
+ *   <li><b>Augment</b> when t is reached, then retreat to the tail of the first saturated arc.</li>
+ *   <li><b>Retreat</b> when u has no admissible arc: relabel u to {@code 1 + min dist} over its residual arcs
+ *       and drop u from the path.</li>
+ * </ul>
+ * The labels stay exact lower bounds on the residual distance, so they also drive termination: the algorithm
+ * stops once {@code dist[s] >= n}, or earlier by the <b>gap</b> heuristic — {@code count[d]} tracks the number of
+ * vertices with label d, and when a relabel empties a label no vertex above it (in particular s) can reach t.
+ *
+ * <p>Complexity: O(V^2 * E), with much less work per augmentation than {@link EdmondsKarp}.
+ */
+public class Isap {
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t}.
+     *
+     * @param g residual network (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(Graph g, int s, int t) {
+        if (s == t) return 0L;
+
+        final int n = g.size();
+        int[] dist = new int[n];
+        int[] count = new int[n + 1];
+        int[] cur = new int[n];
+        int[] path = new int[n]; // path[0] = s; the arc leaving path[i] is adj(path[i]).get(cur[path[i]])
+
+        initialLabels(g, t, dist, count);
+
+        long flow = 0L;
+        int depth = 0;
+        path[0] = s;
+
+        while (dist[s] < n) {
+            int u = path[depth];
+
+            if (u == t) {
+                long bottleneck = Long.MAX_VALUE;
+                for (int i = 0; i < depth; i++) {
+                    bottleneck = Math.min(bottleneck, g.adj(path[i]).get(cur[path[i]]).cap);
+                }
+                int firstSaturated = -1;
+                for (int i = 0; i < depth; i++) {
+                    Edge e = g.adj(path[i]).get(cur[path[i]]);
+                    Edge rev = g.adj(e.to).get(e.rev);
+                    e.cap -= bottleneck;
+                    e.flow += bottleneck;
+                    rev.cap += bottleneck;
+                    rev.flow -= bottleneck;
+                    if (e.cap == 0 && firstSaturated < 0) firstSaturated = i;
+                }
+                flow += bottleneck;
+                depth = firstSaturated;
+                continue;
+            }
+
+            // Advance along the current arc if it is admissible.
+            List<Edge> adj = g.adj(u);
+            int i = cur[u];
+            while (i < adj.size()) {
+                Edge e = adj.get(i);
+                if (e.cap > 0 && dist[u] == dist[e.to] + 1) break;
+                i++;
+            }
+            if (i < adj.size()) {
+                cur[u] = i;
+                path[++depth] = adj.get(i).to;
+                continue;
+            }
+
+            // Retreat: relabel u; its current arc becomes the arc realizing the new label.
+            int minDist = n - 1;
+            int minArc = 0;
+            for (int j = 0; j < adj.size(); j++) {
+                Edge e = adj.get(j);
+                if (e.cap > 0 && dist[e.to] < minDist) {
+                    minDist = dist[e.to];
+                    minArc = j;
+                }
+            }
+            if (--count[dist[u]] == 0) break; // gap: s is above the emptied label
+            dist[u] = minDist + 1;
+            count[dist[u]]++;
+            cur[u] = minArc;
+            if (depth > 0) depth--;
+        }
+        return flow;
+    }
+
+    /**
+     * Exact initial labels: residual distance to {@code t} by reverse BFS, n for vertices that cannot reach t.
+     */
+    private static void initialLabels(Graph g, int t, int[] dist, int[] count) {
+        final int n = g.size();
+        Arrays.fill(dist, n);
+        int[] queue = new int[n];
+        int qh = 0, qt = 0;
+        dist[t] = 0;
+        queue[qt++] = t;
+        while (qh < qt) {
+            int w = queue[qh++];
+            for (Edge e : g.adj(w)) {
+                int v = e.to;
+                if (dist[v] == n && g.adj(v).get(e.rev).cap > 0) {
+                    dist[v] = dist[w] + 1;
+                    queue[qt++] = v;
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) count[dist[v]]++;
+    }
+
+    /* ===================== Array-based variant (CsrGraph) ===================== */
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t} on a {@link CsrGraph}.
+     *
+     * <p>Same algorithm as {@link #maxFlow(Graph, int, int)}; {@code cur[u]} holds a global arc id.
+     *
+     * @param g CSR residual network (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(CsrGraph g, int s, int t) {
+        if (s == t) return 0L;
+
+        final int n = g.size();
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        final long[] flowArr = g.flow();
+
+        int[] dist = new int[n];
+        int[] count = new int[n + 1];
+        int[] cur = new int[n];
+        int[] path = new int[n];
+
+        // Reverse BFS from t.
+        Arrays.fill(dist, n);
+        int qh = 0, qt = 0;
+        dist[t] = 0;
+        path[qt++] = t; // path doubles as the BFS queue
+        while (qh < qt) {
+            int w = path[qh++];
+            for (int a = head[w]; a < head[w + 1]; a++) {
+                int v = to[a];
+                if (dist[v] == n && cap[rev[a]] > 0) {
+                    dist[v] = dist[w] + 1;
+                    path[qt++] = v;
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            count[dist[v]]++;
+            cur[v] = head[v];
+        }
+
+        long flow = 0L;
+        int depth = 0;
+        path[0] = s;
+
+        while (dist[s] < n) {
+            int u = path[depth];
+
+            if (u == t) {
+                long bottleneck = Long.MAX_VALUE;
+                for (int i = 0; i < depth; i++) bottleneck = Math.min(bottleneck, cap[cur[path[i]]]);
+                int firstSaturated = -1;
+                for (int i = 0; i < depth; i++) {
+                    int a = cur[path[i]];
+                    int r = rev[a];
+                    cap[a] -= bottleneck;
+                    cap[r] += bottleneck;
+                    flowArr[a] += bottleneck;
+                    flowArr[r] -= bottleneck;
+                    if (cap[a] == 0 && firstSaturated < 0) firstSaturated = i;
+                }
+                flow += bottleneck;
+                depth = firstSaturated;
+                continue;
+            }
+
+            int a = cur[u];
+            final int end = head[u + 1];
+            while (a < end && !(cap[a] > 0 && dist[u] == dist[to[a]] + 1)) a++;
+            if (a < end) {
+                cur[u] = a;
+                path[++depth] = to[a];
+                continue;
+            }
+
+            int minDist = n - 1;
+            int minArc = head[u];
+            for (int b = head[u]; b < end; b++) {
+                if (cap[b] > 0 && dist[to[b]] < minDist) {
+                    minDist = dist[to[b]];
+                    minArc = b;
+                }
+            }
+            if (--count[dist[u]] == 0) break;
+            dist[u] = minDist + 1;
+            count[dist[u]]++;
+            cur[u] = minArc;
+            if (depth > 0) depth--;
+        }
+        return flow;
+    }
+}
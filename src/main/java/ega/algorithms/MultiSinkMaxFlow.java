@@ -0,0 +1,279 @@
+package ega.algorithms;
+
+import ega.core.CsrGraph;
+
+import java.util.Arrays;
+
+/**
+ * Maximum flows from one fixed source to a sequence of sinks on the same {@link CsrGraph}, each solve warm-started
+ * from the residual state the previous one left behind.
+ *
+ * <p>After {@code maxFlow(t1)} the graph holds a maximum s-t1 preflow. For the next sink t2 this is still a
+ * valid <b>preflow</b>: t1 merely becomes an ordinary vertex whose excess is the old flow value. So instead of
+ * resetting the state and solving from scratch, {@link #maxFlow(int)}
+ * <ol>
+ *   <li>keeps the excess of every vertex (computed from the arc flows on the first call only),</li>
+ *   <li>saturates the arcs out of s that regained residual capacity,</li>
+ *   <li>runs a global relabel towards the new sink, and</li>
+ *   <li>resumes FIFO push-relabel with current arcs and periodic global relabeling (as
+ *       {@link GoldbergTarjan#setGlobalRelabelFrequency(double)} with frequency 1), only until no excess can
+ *       reach the sink any more (first phase of {@link GoldbergTarjan#minCut}).</li>
+ * </ol>
+ * Flow that also leads to the new sink is kept, and excess that could not reach the old sink stays where it is
+ * instead of being returned to s, often close to where the next sink needs it. {@link #recoverFlow()} turns the
+ * current preflow into a valid maximum flow when one is needed (e.g. to inspect it with
+ * {@link ega.core.FlowValidators}); later calls continue from that flow just as well.
+ *
+ * <p>The graph may start in any state that is a preflow from s (no vertex other than s has negative excess),
+ * e.g. zero flow or the result of another solver. Between calls it must only be changed through this object.
+ * Label, excess and queue arrays are allocated once and reused across calls. {@link #setWarmStart(boolean)}
+ * switches to resetting the state to zero flow before every call, for comparison.
+ */
+public class MultiSinkMaxFlow {
+
+    /** Work charged per relabel on top of the scanned degree (as in {@link GoldbergTarjan}). */
+    private static final int RELABEL_WORK = 12;
+
+    private final CsrGraph g;
+    private final int s;
+
+    /** Whether {@link #maxFlow(int)} continues from the current state (default) or resets it first. */
+    private boolean warmStart = true;
+
+    private final int[] label;
+    private final long[] excess;
+    private final int[] ptr;
+    private final int[] ring;
+    private final boolean[] inQ;
+    private final int[] queue;
+
+    /** Sink of the last {@link #maxFlow(int)} call, -1 before the first. */
+    private int sink = -1;
+
+    /** Whether {@link #excess} matches the arc flows of the graph. */
+    private boolean excessValid = false;
+
+    /**
+     * @param g residual network; solves modify it in place and leave the last maximum preflow in it
+     * @param s source node index
+     */
+    public MultiSinkMaxFlow(CsrGraph g, int s) {
+        if (s < 0 || s >= g.size()) throw new IllegalArgumentException("Source out of range: " + s);
+        this.g = g;
+        this.s = s;
+        final int n = g.size();
+        label = new int[n];
+        excess = new long[n];
+        ptr = new int[n];
+        ring = new int[n];
+        inQ = new boolean[n];
+        queue = new int[n];
+    }
+
+    /**
+     * Enables warm starts (default on). When off, every {@link #maxFlow(int)} first resets the graph to zero
+     * flow and solves from scratch with the same push-relabel.
+     */
+    public void setWarmStart(boolean enable) {
+        this.warmStart = enable;
+    }
+
+    /**
+     * Computes the maximum flow from s to each sink in order.
+     *
+     * @param sinks sink node indices (each different from s)
+     * @return flow values, one per sink
+     */
+    public long[] maxFlows(int... sinks) {
+        long[] flows = new long[sinks.length];
+        for (int i = 0; i < sinks.length; i++) flows[i] = maxFlow(sinks[i]);
+        return flows;
+    }
+
+    /**
+     * Computes the maximum flow from s to {@code t}, starting from the current residual state.
+     *
+     * <p>Afterwards the graph holds a maximum <b>preflow</b>: {@code t} has received the maximum flow, and
+     * excess may remain on vertices that cannot reach {@code t} (they form the source side of a minimum cut).
+     * That excess is simply carried over into the next call; call {@link #recoverFlow()} first if a valid flow
+     * is needed.
+     *
+     * @param t sink node index (different from s)
+     * @return maximum s-t flow value
+     * @throws IllegalStateException if the initial state of the graph is not a preflow from s
+     */
+    public long maxFlow(int t) {
+        final int n = g.size();
+        if (t < 0 || t >= n) throw new IllegalArgumentException("Sink out of range: " + t);
+        if (t == s) throw new IllegalArgumentException("Sink must differ from the source.");
+
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        final long[] flow = g.flow();
+
+        if (!warmStart) {
+            System.arraycopy(g.origCap(), 0, cap, 0, cap.length);
+            Arrays.fill(flow, 0L);
+            Arrays.fill(excess, 0L);
+        } else if (!excessValid) {
+            // 1) Excess = inflow - outflow; reverse arcs carry the negated flow, so it is minus the arc flow sum.
+            for (int v = 0; v < n; v++) {
+                long out = 0;
+                for (int a = head[v]; a < head[v + 1]; a++) out += flow[a];
+                excess[v] = -out;
+                if (v != s && excess[v] < 0) {
+                    throw new IllegalStateException("Residual state is not a preflow from s (vertex " + v + ").");
+                }
+            }
+        }
+        excessValid = true;
+
+        // 2) Saturate the residual arcs out of s.
+        for (int a = head[s]; a < head[s + 1]; a++) {
+            long c = cap[a];
+            if (c <= 0) continue;
+            int r = rev[a];
+            cap[a] = 0;
+            cap[r] += c;
+            flow[a] += c;
+            flow[r] -= c;
+            excess[s] -= c;
+            excess[to[a]] += c;
+        }
+
+        // 3) Push excess towards t; vertices that cannot reach t keep theirs.
+        sink = t;
+        discharge(n);
+        return excess[t];
+    }
+
+    /**
+     * Turns the maximum preflow left by the last {@link #maxFlow(int)} into a valid maximum flow by returning
+     * the remaining excess to s. The flow value is unchanged.
+     */
+    public void recoverFlow() {
+        if (sink < 0) throw new IllegalStateException("No sink solved yet.");
+        discharge(2 * g.size());
+    }
+
+    /**
+     * FIFO push-relabel towards {@link #sink} with periodic global relabeling, over the vertices with excess and
+     * label below {@code heightLimit}: n stops once no excess can reach the sink, 2n also returns the rest to s.
+     */
+    private void discharge(int heightLimit) {
+        final int n = g.size();
+        final int t = sink;
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        final long[] flow = g.flow();
+        final boolean toSource = heightLimit > n;
+
+        globalRelabel(toSource);
+        Arrays.fill(inQ, false);
+        int qHead = 0, qSize = 0;
+        for (int v = 0; v < n; v++) {
+            if (v != s && v != t && excess[v] > 0 && label[v] < heightLimit) {
+                ring[qSize++] = v;
+                inQ[v] = true;
+            }
+        }
+
+        final long threshold = 6L * n + head[n];
+        long relabelWork = 0;
+        while (qSize > 0) {
+            int u = ring[qHead];
+            qHead = (qHead + 1) % n;
+            qSize--;
+            inQ[u] = false;
+            if (label[u] >= heightLimit) continue;
+
+            while (excess[u] > 0) {
+                if (ptr[u] >= head[u + 1]) {
+                    int minH = 2 * n - 1;
+                    for (int a = head[u]; a < head[u + 1]; a++) {
+                        if (cap[a] > 0 && label[to[a]] < minH) minH = label[to[a]];
+                    }
+                    label[u] = minH + 1;
+                    ptr[u] = head[u];
+                    relabelWork += head[u + 1] - head[u] + RELABEL_WORK;
+                    if (relabelWork >= threshold || label[u] >= heightLimit) break;
+                    continue;
+                }
+
+                int a = ptr[u];
+                int v = to[a];
+                if (cap[a] > 0 && label[u] == label[v] + 1) {
+                    long send = Math.min(excess[u], cap[a]);
+                    int r = rev[a];
+                    cap[a] -= send;
+                    cap[r] += send;
+                    flow[a] += send;
+                    flow[r] -= send;
+                    excess[u] -= send;
+                    excess[v] += send;
+
+                    if (v != s && v != t && !inQ[v]) {
+                        ring[(qHead + qSize++) % n] = v;
+                        inQ[v] = true;
+                    }
+                } else {
+                    ptr[u]++;
+                }
+            }
+
+            if (excess[u] > 0 && label[u] < heightLimit && !inQ[u]) {
+                ring[(qHead + qSize++) % n] = u;
+                inQ[u] = true;
+            }
+            if (relabelWork >= threshold) {
+                globalRelabel(toSource);
+                relabelWork = 0;
+            }
+        }
+    }
+
+    /**
+     * Sets every label to the exact residual distance to the sink. Vertices that cannot reach it get n, or, if
+     * {@code toSource} is set, n plus their residual distance to s (2n-1 if they reach neither). Resets the
+     * current arcs.
+     */
+    private void globalRelabel(boolean toSource) {
+        final int n = g.size();
+        Arrays.fill(label, -1);
+        label[sink] = 0;
+        label[s] = n;
+        reverseBfs(sink);
+        if (toSource) reverseBfs(s);
+        final int unreached = toSource ? 2 * n - 1 : n;
+        for (int v = 0; v < n; v++) {
+            if (label[v] < 0) label[v] = unreached;
+        }
+        System.arraycopy(g.head(), 0, ptr, 0, n);
+    }
+
+    /**
+     * BFS from the already labelled {@code root} backwards over residual arcs.
+     */
+    private void reverseBfs(int root) {
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        int qHead = 0, qTail = 0;
+        queue[qTail++] = root;
+        while (qHead < qTail) {
+            int w = queue[qHead++];
+            for (int a = head[w]; a < head[w + 1]; a++) {
+                int v = to[a];
+                if (label[v] < 0 && cap[rev[a]] > 0) {
+                    label[v] = label[w] + 1;
+                    queue[qTail++] = v;
+                }
+            }
+        }
+    }
+}
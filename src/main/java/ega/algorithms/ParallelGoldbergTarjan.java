@@ -0,0 +1,389 @@
+package ega.algorithms;
+
+import ega.core.CsrGraph;
+import ega.core.Graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * Synchronous parallel push-relabel (in the style of Baumstark, Blelloch and Shun) on a {@link CsrGraph}.
+ *
+ * <p>The algorithm runs in rounds over the set of active vertices (excess > 0, not s or t). Every round has
+ * three parallel steps separated by barriers:
+ * <ol>
+ *   <li><b>Push</b>: each active vertex v pushes along arcs that are admissible under the labels of the round
+ *       ({@code label[v] == label[w] + 1}). Because an arc and its reverse can never both be admissible, each
+ *       arc pair is written by only one thread per round. Excess sent to w is accumulated atomically in a
+ *       separate array and only becomes usable in the next round, so v discharges with its own excess
+ *       without locking.</li>
+ *   <li><b>Relabel</b>: a vertex that still has excess had no admissible arc left; its new label
+ *       {@code 1 + min label[w]} over residual arcs is computed from the labels of the round and applied
+ *       after all vertices are done, which keeps the labelling valid.</li>
+ *   <li><b>Merge</b>: accumulated excess is added, and every vertex with excess forms the next round's
+ *       active set (collected with a per-vertex claim via CAS).</li>
+ * </ol>
+ * Rounds are executed on a dedicated {@link ForkJoinPool} with a configurable number of threads
+ * ({@link #setThreads(int)}); small active sets are processed inline.
+ *
+ * <p>Global relabeling (exact distances to t, or n plus the distance to s) runs before the first round and
+ * whenever the relabel work since the last one exceeds {@code frequency * (6n + m)}
+ * ({@link #setGlobalRelabelFrequency(double)}, as in {@link GoldbergTarjan}). On graphs with at least
+ * {@link ParallelLevelBfs#MIN_VERTICES} vertices its reverse searches run as a parallel BFS on the same pool, so
+ * they do not serialise the solver; {@link #statistics()} reports their share of the running time. Excess that
+ * cannot reach t is returned to s, so the result is a valid maximum flow.
+ */
+public class ParallelGoldbergTarjan {
+
+    /** Work charged per relabel on top of the scanned degree (as in {@link GoldbergTarjan}). */
+    private static final int RELABEL_WORK = 12;
+
+    /** Minimum number of vertices per parallel task. */
+    private static final int GRAIN = 256;
+
+    /** Number of worker threads. */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /** Global relabel frequency; 0 disables global relabeling. */
+    private double globalRelabelFrequency = 1.0;
+
+    /** Vertex labels (heights). */
+    private int[] label;
+
+    /** Labels computed in the relabel step, applied after it. */
+    private int[] newLabel;
+
+    /** Excess per vertex, owned by the vertex during the push step. */
+    private long[] excess;
+
+    /** Excess received during the current push step. */
+    private AtomicLongArray addedExcess;
+
+    /** Round in which the vertex was last put into the next active set. */
+    private AtomicIntegerArray queuedRound;
+
+    /** Whether the vertex still had excess after pushing (needs relabel). */
+    private boolean[] stuck;
+
+    private int[] active, nextActive;
+    private AtomicInteger nextSize;
+
+    private final LongAdder relabelWork = new LongAdder();
+
+    /** Counters of the running call (see {@link GoldbergTarjan.Statistics}). */
+    private final LongAdder pushes = new LongAdder(), relabels = new LongAdder();
+    private long globalRelabels, globalRelabelNanos;
+
+    /** Parallel reverse BFS of the running call, or null if global relabeling is serial. */
+    private ParallelLevelBfs parallelBfs;
+
+    /** Counters of the last completed {@code maxFlow} call. */
+    private GoldbergTarjan.Statistics statistics;
+
+    /**
+     * Sets the number of worker threads (default: number of available processors).
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1.");
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the global relabel frequency (default 1.0); see {@link GoldbergTarjan#setGlobalRelabelFrequency}.
+     * 0 disables global relabeling, which makes the synchronous rounds much slower on most instances.
+     *
+     * @param frequency relabel-work multiplier (>= 0)
+     */
+    public void setGlobalRelabelFrequency(double frequency) {
+        if (!(frequency >= 0)) throw new IllegalArgumentException("frequency must be >= 0.");
+        this.globalRelabelFrequency = frequency;
+    }
+
+    /**
+     * Returns the counters of the last {@code maxFlow} call, or null before the first one.
+     */
+    public GoldbergTarjan.Statistics statistics() {
+        return statistics;
+    }
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t} on a {@link Graph} by running on a CSR copy and
+     * writing the result back.
+     *
+     * @param g residual network representation (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(Graph g, int s, int t) {
+        CsrGraph csr = CsrGraph.from(g);
+        long flow = maxFlow(csr, s, t);
+        csr.copyResidualTo(g);
+        return flow;
+    }
+
+    /**
+     * Computes the maximum flow from {@code s} to {@code t}.
+     *
+     * @param g CSR residual network (modified in-place)
+     * @param s source node index
+     * @param t sink node index
+     * @return maximum s-t flow value
+     */
+    public long maxFlow(CsrGraph g, int s, int t) {
+        if (s == t) return 0L;
+
+        final long start = System.nanoTime();
+        pushes.reset();
+        relabels.reset();
+        globalRelabels = globalRelabelNanos = 0;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        if (threads > 1 && g.size() >= ParallelLevelBfs.MIN_VERTICES) parallelBfs = new ParallelLevelBfs(pool);
+        try {
+            return run(pool, g, s, t);
+        } finally {
+            pool.shutdown();
+            parallelBfs = null;
+            statistics = new GoldbergTarjan.Statistics(pushes.sum(), relabels.sum(), globalRelabels,
+                    globalRelabelNanos, System.nanoTime() - start);
+            label = newLabel = null;
+            excess = null;
+            addedExcess = null;
+            queuedRound = null;
+            stuck = null;
+            active = nextActive = null;
+        }
+    }
+
+    private long run(ForkJoinPool pool, CsrGraph g, int s, int t) {
+        final int n = g.size();
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        final long[] flow = g.flow();
+
+        label = new int[n];
+        newLabel = new int[n];
+        excess = new long[n];
+        addedExcess = new AtomicLongArray(n);
+        queuedRound = new AtomicIntegerArray(n);
+        stuck = new boolean[n];
+        active = new int[n];
+        nextActive = new int[n];
+        nextSize = new AtomicInteger();
+        relabelWork.reset();
+
+        // Preflow: saturate every arc out of s.
+        label[s] = n;
+        for (int a = head[s]; a < head[s + 1]; a++) {
+            long c = cap[a];
+            if (c <= 0) continue;
+            cap[a] = 0;
+            cap[rev[a]] += c;
+            flow[a] += c;
+            flow[rev[a]] -= c;
+            excess[s] -= c;
+            excess[to[a]] += c;
+        }
+
+        long threshold = Long.MAX_VALUE;
+        if (globalRelabelFrequency > 0) {
+            threshold = (long) Math.ceil(globalRelabelFrequency * (6.0 * n + head[n]));
+            globalRelabel(g, s, t);
+        }
+
+        int activeSize = 0;
+        for (int v = 0; v < n; v++) {
+            if (v != s && v != t && excess[v] > 0 && label[v] < 2 * n) active[activeSize++] = v;
+        }
+
+        int round = 0;
+        while (activeSize > 0) {
+            final int[] act = active;
+            final int size = activeSize;
+            final int r = ++round;
+            nextSize.set(0);
+
+            // 1) Push along arcs admissible under the labels of this round.
+            parallelFor(pool, 0, size, i -> {
+                int v = act[i];
+                long e = excess[v];
+                final int d = label[v];
+                int pushed = 0;
+                for (int a = head[v]; a < head[v + 1] && e > 0; a++) {
+                    int w = to[a];
+                    if (cap[a] <= 0 || label[w] != d - 1) continue;
+                    long delta = Math.min(e, cap[a]);
+                    cap[a] -= delta;
+                    cap[rev[a]] += delta;
+                    flow[a] += delta;
+                    flow[rev[a]] -= delta;
+                    e -= delta;
+                    pushed++;
+                    addedExcess.getAndAdd(w, delta);
+                    if (w != s && w != t) enqueue(w, r);
+                }
+                if (pushed > 0) pushes.add(pushed);
+                excess[v] = e;
+                stuck[v] = e > 0;
+            });
+
+            // 2) Relabel the vertices that ran out of admissible arcs (reads the old labels only).
+            parallelFor(pool, 0, size, i -> {
+                int v = act[i];
+                if (!stuck[v]) {
+                    newLabel[v] = label[v];
+                    return;
+                }
+                int min = 2 * n - 1;
+                for (int a = head[v]; a < head[v + 1]; a++) {
+                    if (cap[a] > 0 && label[to[a]] < min) min = label[to[a]];
+                }
+                newLabel[v] = min + 1;
+                relabelWork.add(head[v + 1] - head[v] + RELABEL_WORK);
+                relabels.increment();
+            });
+
+            // 3) Apply labels and keep vertices with excess left.
+            parallelFor(pool, 0, size, i -> {
+                int v = act[i];
+                label[v] = newLabel[v];
+                if (stuck[v]) enqueue(v, r);
+            });
+
+            // Merge received excess into the vertices of the next round (s and t directly).
+            final int[] next = nextActive;
+            final int nextCount = nextSize.get();
+            parallelFor(pool, 0, nextCount, i -> {
+                int w = next[i];
+                excess[w] += addedExcess.getAndSet(w, 0);
+            });
+            excess[s] += addedExcess.getAndSet(s, 0);
+            excess[t] += addedExcess.getAndSet(t, 0);
+
+            nextActive = active;
+            active = next;
+            activeSize = 0;
+            for (int i = 0; i < nextCount; i++) {
+                int w = next[i];
+                if (excess[w] > 0 && label[w] < 2 * n) next[activeSize++] = w;
+            }
+
+            if (relabelWork.sum() >= threshold) {
+                globalRelabel(g, s, t);
+                relabelWork.reset();
+                int k = 0;
+                for (int i = 0; i < activeSize; i++) {
+                    if (label[active[i]] < 2 * n - 1) active[k++] = active[i];
+                }
+                activeSize = k;
+            }
+        }
+        return excess[t];
+    }
+
+    /**
+     * Appends {@code v} to the next active set unless it was already added in round {@code round}.
+     */
+    private void enqueue(int v, int round) {
+        int seen = queuedRound.get(v);
+        if (seen != round && queuedRound.compareAndSet(v, seen, round)) {
+            nextActive[nextSize.getAndIncrement()] = v;
+        }
+    }
+
+    /**
+     * Global relabel: exact residual distance to t, or n plus the residual distance to s for vertices that
+     * cannot reach t; 2n-1 for vertices reaching neither (they carry no excess).
+     */
+    private void globalRelabel(CsrGraph g, int s, int t) {
+        final long start = System.nanoTime();
+        final int n = g.size();
+        Arrays.fill(label, -1);
+        label[t] = 0;
+        label[s] = n;
+        if (parallelBfs != null) {
+            parallelBfs.reverse(g, t, label);
+            parallelBfs.reverse(g, s, label);
+        } else {
+            int[] queue = new int[n];
+            reverseBfs(g, t, queue);
+            reverseBfs(g, s, queue);
+        }
+        for (int v = 0; v < n; v++) {
+            if (label[v] < 0) label[v] = 2 * n - 1;
+        }
+        globalRelabels++;
+        globalRelabelNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * BFS from the already labelled {@code root} backwards over residual arcs.
+     */
+    private void reverseBfs(CsrGraph g, int root, int[] queue) {
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        int qHead = 0, qTail = 0;
+        queue[qTail++] = root;
+        while (qHead < qTail) {
+            int w = queue[qHead++];
+            for (int a = head[w]; a < head[w + 1]; a++) {
+                int v = to[a];
+                if (label[v] < 0 && cap[rev[a]] > 0) {
+                    label[v] = label[w] + 1;
+                    queue[qTail++] = v;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs {@code body} for every index in {@code [from, to)} on {@code pool}; ranges of at most
+     * {@link #GRAIN} indices run in the calling thread.
+     */
+    static void parallelFor(ForkJoinPool pool, int from, int to, IntConsumer body) {
+        if (to - from <= GRAIN) {
+            for (int i = from; i < to; i++) body.accept(i);
+            return;
+        }
+        pool.invoke(new RangeTask(from, to, body));
+    }
+
+    /**
+     * Recursive range splitting down to {@link #GRAIN} indices per task.
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+
+        /** Never serialized: tasks only live inside one {@code pool.invoke}. */
+        private final transient IntConsumer body;
+
+        RangeTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                for (int i = from; i < to; i++) body.accept(i);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, body), new RangeTask(mid, to, body));
+        }
+    }
+}
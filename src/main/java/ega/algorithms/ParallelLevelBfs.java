@@ -0,0 +1,329 @@
+package ega.algorithms;
+
+import ega.core.CsrGraph;
+import ega.core.Edge;
+import ega.core.Graph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Level-synchronous parallel BFS over residual arcs. It builds the level graph of a {@link Dinic} phase (forward
+ * from s) and performs the reverse searches of a push-relabel global relabel (backwards from t and s, see
+ * {@link GoldbergTarjan#setThreads(int)} and {@link ParallelGoldbergTarjan}). Callers use it on graphs with at
+ * least {@link #MIN_VERTICES} vertices and more than one thread.
+ *
+ * <p>Each step expands one complete BFS layer on a {@link ForkJoinPool}, in one of two directions
+ * (direction-optimising BFS after Beamer, Asanović and Patterson):
+ * <ul>
+ *   <li><b>Top-down</b>: the frontier is split among the workers; a worker scans the residual arcs of its
+ *       frontier vertices and claims unvisited heads with a CAS on {@code level[v]}.</li>
+ *   <li><b>Bottom-up</b>: all vertices are split among the workers; every unvisited vertex looks for one
+ *       residual arc entering it from the frontier and stops at the first. Only the owner writes
+ *       {@code level[v]}, so no CAS is needed.</li>
+ * </ul>
+ * A reverse search does the same over arcs entering the frontier instead of leaving it.
+ * Top-down is used while the frontier is small; the search switches to bottom-up once the arcs leaving the
+ * frontier exceed {@code 1/ALPHA} of the arcs of unvisited vertices, and back once the frontier shrinks below
+ * {@code n/BETA} vertices. New frontier vertices are collected in per-task buffers and appended in blocks.
+ *
+ * <p>The search stops after the layer that reaches t: vertices farther from s than t never lie on a shortest
+ * s-t path, so they keep level -1. Levels of all other vertices equal the serial BFS distances.
+ */
+final class ParallelLevelBfs {
+
+    /** Graphs with fewer vertices are searched serially by the callers. */
+    static final int MIN_VERTICES = 1 << 15;
+
+    /** Frontier entries (top-down) or vertices (bottom-up) per task. */
+    private static final int GRAIN = 1024;
+
+    /** Size of the per-task buffer for newly discovered vertices. */
+    private static final int BUFFER = 256;
+
+    /** Direction switching parameters (values from Beamer et al.). */
+    private static final int ALPHA = 14, BETA = 24;
+
+    private static final VarHandle LEVEL = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final ForkJoinPool pool;
+
+    /** Exactly one of the two is set for the current search. */
+    private Graph graph;
+    private CsrGraph csr;
+    private long minCap;
+
+    /** Whether the current search follows arcs backwards (towards the root). */
+    private boolean reverse;
+
+    /** Graph whose arcs were counted last, and the count. */
+    private Object countedGraph;
+    private long arcCount;
+
+    private int[] level;
+    private int depth;
+    private int[] frontier = new int[0], next = new int[0];
+    private int frontierSize;
+    private final AtomicInteger nextSize = new AtomicInteger();
+    private final AtomicLong nextDegree = new AtomicLong();
+
+    ParallelLevelBfs(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Fills {@code level} with BFS distances from s over arcs with {@code cap >= minCap} (-1 if unreached or
+     * farther than t).
+     *
+     * @return {@code true} iff t is reachable from s
+     */
+    boolean search(Graph g, int s, int t, int[] level, long minCap) {
+        this.graph = g;
+        this.csr = null;
+        this.minCap = minCap;
+        this.reverse = false;
+        return run(g.size(), s, t, level, true);
+    }
+
+    /**
+     * {@link #search(Graph, int, int, int[], long)} on a {@link CsrGraph}, over arcs with {@code cap > 0}.
+     */
+    boolean search(CsrGraph g, int s, int t, int[] level) {
+        this.graph = null;
+        this.csr = g;
+        this.minCap = 1L;
+        this.reverse = false;
+        return run(g.size(), s, t, level, true);
+    }
+
+    /**
+     * Reverse BFS from the already labelled {@code root} over residual arcs: every vertex v with
+     * {@code dist[v] == -1} that reaches root gets {@code dist[root]} plus its residual distance to root.
+     * Vertices with another label are neither relabelled nor passed through.
+     */
+    void reverse(Graph g, int root, int[] dist) {
+        this.graph = g;
+        this.csr = null;
+        this.minCap = 1L;
+        this.reverse = true;
+        run(g.size(), root, -1, dist, false);
+    }
+
+    /**
+     * {@link #reverse(Graph, int, int[])} on a {@link CsrGraph}.
+     */
+    void reverse(CsrGraph g, int root, int[] dist) {
+        this.graph = null;
+        this.csr = g;
+        this.minCap = 1L;
+        this.reverse = true;
+        run(g.size(), root, -1, dist, false);
+    }
+
+    /**
+     * Searches from {@code root} until the frontier is empty or {@code target} (if >= 0) is labelled.
+     */
+    private boolean run(int n, int root, int target, int[] level, boolean reset) {
+        this.level = level;
+        if (frontier.length < n) {
+            frontier = new int[n];
+            next = new int[n];
+        }
+
+        long unexplored;
+        if (reset) {
+            // Reset levels and count all arcs in one parallel pass.
+            nextDegree.set(0);
+            forRange(Mode.RESET, n);
+            unexplored = nextDegree.get() - degree(root);
+            level[root] = 0;
+        } else {
+            unexplored = arcCount(n) - degree(root);
+        }
+
+        frontier[0] = root;
+        frontierSize = 1;
+        long frontierDegree = degree(root);
+        boolean bottomUp = false;
+
+        for (depth = level[root]; frontierSize > 0 && (target < 0 || level[target] == -1); depth++) {
+            if (!bottomUp && frontierDegree > unexplored / ALPHA) bottomUp = true;
+            else if (bottomUp && frontierSize < n / BETA) bottomUp = false;
+
+            nextSize.set(0);
+            nextDegree.set(0);
+            if (bottomUp) forRange(Mode.BOTTOM_UP, n);
+            else forRange(Mode.TOP_DOWN, frontierSize);
+
+            int[] tmp = frontier;
+            frontier = next;
+            next = tmp;
+            frontierSize = nextSize.get();
+            frontierDegree = nextDegree.get();
+            unexplored -= frontierDegree;
+        }
+
+        this.level = null;
+        this.graph = null;
+        this.csr = null;
+        return target >= 0 && level[target] != -1;
+    }
+
+    private long arcCount(int n) {
+        Object g = csr != null ? csr : graph;
+        if (g != countedGraph) {
+            long arcs = 0;
+            for (int v = 0; v < n; v++) arcs += degree(v);
+            countedGraph = g;
+            arcCount = arcs;
+        }
+        return arcCount;
+    }
+
+    private enum Mode { RESET, TOP_DOWN, BOTTOM_UP }
+
+    /**
+     * Runs {@code mode} over {@code [0, size)}: inline if the range fits into one task, else on the pool.
+     */
+    private void forRange(Mode mode, int size) {
+        if (size <= GRAIN) new Step(mode, 0, size).compute();
+        else pool.invoke(new Step(mode, 0, size));
+    }
+
+    private int degree(int v) {
+        return csr != null ? csr.head()[v + 1] - csr.head()[v] : graph.adj(v).size();
+    }
+
+    /**
+     * One BFS step over an index range, split recursively down to {@link #GRAIN}.
+     */
+    private final class Step extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Mode mode;
+        private final int from, to;
+
+        /** Discovered vertices not yet appended to {@link #next}. */
+        private int[] buffer;
+        private int buffered;
+        private long bufferedDegree;
+
+        Step(Mode mode, int from, int to) {
+            this.mode = mode;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GRAIN) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Step(mode, from, mid), new Step(mode, mid, to));
+                return;
+            }
+            switch (mode) {
+                case RESET -> reset();
+                case TOP_DOWN -> {
+                    buffer = new int[BUFFER];
+                    if (csr != null) topDownCsr();
+                    else topDownList();
+                    flush();
+                }
+                case BOTTOM_UP -> {
+                    buffer = new int[BUFFER];
+                    if (csr != null) bottomUpCsr();
+                    else bottomUpList();
+                    flush();
+                }
+            }
+        }
+
+        private void reset() {
+            long arcs = 0;
+            for (int v = from; v < to; v++) {
+                level[v] = -1;
+                arcs += degree(v);
+            }
+            nextDegree.addAndGet(arcs);
+        }
+
+        private void topDownCsr() {
+            final int[] head = csr.head();
+            final int[] arcTo = csr.to();
+            final int[] rev = csr.rev();
+            final long[] cap = csr.cap();
+            final int d = depth + 1;
+            for (int i = from; i < to; i++) {
+                int u = frontier[i];
+                for (int a = head[u]; a < head[u + 1]; a++) {
+                    int v = arcTo[a];
+                    long c = reverse ? cap[rev[a]] : cap[a];
+                    if (c > 0 && level[v] == -1 && LEVEL.compareAndSet(level, v, -1, d)) add(v);
+                }
+            }
+        }
+
+        private void topDownList() {
+            final int d = depth + 1;
+            for (int i = from; i < to; i++) {
+                for (Edge e : graph.adj(frontier[i])) {
+                    int v = e.to;
+                    long c = reverse ? graph.adj(v).get(e.rev).cap : e.cap;
+                    if (c >= minCap && level[v] == -1 && LEVEL.compareAndSet(level, v, -1, d)) add(v);
+                }
+            }
+        }
+
+        private void bottomUpCsr() {
+            final int[] head = csr.head();
+            final int[] arcTo = csr.to();
+            final int[] rev = csr.rev();
+            final long[] cap = csr.cap();
+            final int d = depth;
+            for (int v = from; v < to; v++) {
+                if (level[v] != -1) continue;
+                for (int a = head[v]; a < head[v + 1]; a++) {
+                    if (level[arcTo[a]] == d && (reverse ? cap[a] : cap[rev[a]]) > 0) {
+                        level[v] = d + 1;
+                        add(v);
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void bottomUpList() {
+            final int d = depth;
+            for (int v = from; v < to; v++) {
+                if (level[v] != -1) continue;
+                for (Edge e : graph.adj(v)) {
+                    int u = e.to;
+                    if (level[u] == d && (reverse ? e.cap : graph.adj(u).get(e.rev).cap) >= minCap) {
+                        level[v] = d + 1;
+                        add(v);
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void add(int v) {
+            buffer[buffered++] = v;
+            bufferedDegree += degree(v);
+            if (buffered == BUFFER) flush();
+        }
+
+        private void flush() {
+            if (buffered == 0) return;
+            int at = nextSize.getAndAdd(buffered);
+            System.arraycopy(buffer, 0, next, at, buffered);
+            nextDegree.addAndGet(bufferedDegree);
+            buffered = 0;
+            bufferedDegree = 0;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package ega.core;
+
+import java.util.List;
+
+/**
+ * Frozen residual network in compressed sparse row (CSR) layout.
+ *
+ * <p>This is the flat, primitive-array counterpart of {@link Graph}. All residual arcs are numbered
+ * {@code 0..m-1} and stored in parallel arrays, grouped by tail vertex:
+ * <ul>
+ *   <li>{@code head[u] .. head[u+1]-1} are the arc ids leaving {@code u} ({@code head} has length {@code n+1}).</li>
+ *   <li>{@code to[a]} is the head vertex of arc {@code a}.</li>
+ *   <li>{@code rev[a]} is the <b>global</b> arc id of the reverse arc (not an index into the head's list).</li>
+ *   <li>{@code cap[a]} is the current residual capacity, {@code flow[a]} the current flow
+ *       (reverse arcs carry negative flow), {@code origCap[a]} the original capacity
+ *       (0 for pure residual reverse arcs).</li>
+ * </ul>
+ *
+ * <p>Internally the graph is a pair of an immutable {@link Topology} ({@code head}, {@code to}, {@code rev},
+ * {@code origCap}) and a mutable {@link ResidualState} ({@code cap}, {@code flow}).
+ * Accessors return the live backing arrays for speed; callers must only write {@code cap} and {@code flow}.
+ */
+public class CsrGraph {
+
+    /** Shared, read-only arc structure. */
+    private final Topology topo;
+
+    /** Residual capacities and flows owned by this graph. */
+    private final ResidualState state;
+
+    /**
+     * Creates a graph over {@code topo} in its initial residual state (zero flow).
+     *
+     * @param topo arc structure, e.g. from {@link GraphBuilder#freeze()}
+     */
+    public CsrGraph(Topology topo) {
+        this(topo, new ResidualState(topo));
+    }
+
+    /**
+     * Pairs a topology with an existing residual state.
+     *
+     * @param topo  arc structure
+     * @param state residual state with one entry per arc of {@code topo}
+     */
+    public CsrGraph(Topology topo, ResidualState state) {
+        if (state.cap().length != topo.arcCount()) {
+            throw new IllegalArgumentException("Residual state does not match topology.");
+        }
+        this.topo = topo;
+        this.state = state;
+    }
+
+    /**
+     * Builds a CSR snapshot of {@code g}, including its current residual capacities and flows.
+     *
+     * <p>Arc order within each vertex matches the order of {@link Graph#adj(int)}, so a solver that scans
+     * arcs in index order behaves exactly like its {@link Graph}-based counterpart.</p>
+     *
+     * @param g adjacency-list residual network built via {@link Graph#addEdge(int, int, long)}
+     * @return frozen CSR copy of {@code g}
+     */
+    public static CsrGraph from(Graph g) {
+        final int n = g.size();
+
+        // 1) Offsets: prefix sums of the adjacency list sizes.
+        int[] head = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            head[u + 1] = head[u] + g.adj(u).size();
+        }
+        final int m = head[n];
+
+        int[] to = new int[m];
+        int[] rev = new int[m];
+        long[] origCap = new long[m];
+        long[] cap = new long[m];
+        long[] flow = new long[m];
+
+        // 2) Copy arcs in adjacency order; Edge.rev is local to adj(e.to), so shift it by head[e.to].
+        for (int u = 0; u < n; u++) {
+            List<Edge> row = g.adj(u);
+            int a = head[u];
+            for (Edge e : row) {
+                to[a] = e.to;
+                rev[a] = head[e.to] + e.rev;
+                origCap[a] = e.origCap;
+                cap[a] = e.cap;
+                flow[a] = e.flow;
+                a++;
+            }
+        }
+
+        return new CsrGraph(new Topology(n, head, to, rev, origCap), new ResidualState(cap, flow));
+    }
+
+    /**
+     * @return the shared arc structure
+     */
+    public Topology topology() {
+        return topo;
+    }
+
+    /**
+     * @return the residual state owned by this graph
+     */
+    public ResidualState state() {
+        return state;
+    }
+
+    /**
+     * @return number of vertices in the graph
+     */
+    public int size() {
+        return topo.size();
+    }
+
+    /**
+     * @return number of residual arcs (twice the number of original edges)
+     */
+    public int arcCount() {
+        return topo.arcCount();
+    }
+
+    /** @return arc offsets per vertex (length {@code n+1}); read-only */
+    public int[] head() {
+        return topo.head();
+    }
+
+    /** @return head vertex per arc; read-only */
+    public int[] to() {
+        return topo.to();
+    }
+
+    /** @return global reverse-arc id per arc; read-only */
+    public int[] rev() {
+        return topo.rev();
+    }
+
+    /** @return original capacity per arc; read-only */
+    public long[] origCap() {
+        return topo.origCap();
+    }
+
+    /** @return current residual capacity per arc (updated in-place by the algorithms) */
+    public long[] cap() {
+        return state.cap();
+    }
+
+    /** @return current flow per arc (updated in-place by the algorithms) */
+    public long[] flow() {
+        return state.flow();
+    }
+
+    /**
+     * Copies this graph including its complete residual state.
+     *
+     * <p>The topology is shared (it is never modified); only {@code cap} and {@code flow} are copied.</p>
+     *
+     * @return an independent residual copy
+     */
+    public CsrGraph cloneGraph() {
+        return new CsrGraph(topo, state.copy());
+    }
+
+    /**
+     * Writes the residual state of this CSR graph back into the {@link Edge} records of {@code g}.
+     *
+     * <p>{@code g} must be the graph this instance was built from (same vertices and adjacency order).
+     * This lets callers run an array-based solver and still use {@link Graph}-based tooling afterwards.</p>
+     *
+     * @param g target adjacency-list graph
+     */
+    public void copyResidualTo(Graph g) {
+        final int n = topo.size();
+        final int[] head = topo.head();
+        final long[] cap = state.cap();
+        final long[] flow = state.flow();
+        if (g.size() != n) throw new IllegalArgumentException("Vertex count mismatch.");
+        for (int u = 0; u < n; u++) {
+            List<Edge> row = g.adj(u);
+            if (row.size() != head[u + 1] - head[u]) {
+                throw new IllegalArgumentException("Adjacency mismatch at vertex " + u + ".");
+            }
+            int a = head[u];
+            for (Edge e : row) {
+                e.cap = cap[a];
+                e.flow = flow[a];
+                a++;
+            }
+        }
+    }
+}
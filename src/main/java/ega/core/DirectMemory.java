@@ -0,0 +1,76 @@
+package ega.core;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Allocation and explicit release of the direct buffers behind {@link OffHeapLongArray} and
+ * {@link OffHeapIntArray}.
+ *
+ * <p>Direct buffers count against the JVM's direct-memory limit, {@code -XX:MaxDirectMemorySize}, which
+ * defaults to the maximum heap size ({@code -Xmx}). Off-heap graphs larger than the heap therefore need the flag
+ * set explicitly, e.g. {@code -Xmx2g -XX:MaxDirectMemorySize=16g}.
+ *
+ * <p>Without help, the native memory of a direct buffer is only returned after the GC has collected the buffer
+ * object, which may happen late or not at all while the heap is quiet. {@link #free(ByteBuffer)} releases it
+ * immediately through {@code sun.misc.Unsafe.invokeCleaner} (module {@code jdk.unsupported}); if that is not
+ * available it does nothing and release falls back to the GC.
+ */
+final class DirectMemory {
+
+    /** {@code sun.misc.Unsafe} instance and its {@code invokeCleaner(ByteBuffer)}, or null if unavailable. */
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> c = Class.forName("sun.misc.Unsafe");
+            Field f = c.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            unsafe = f.get(null);
+            invokeCleaner = c.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private DirectMemory() {
+    }
+
+    /**
+     * Allocates a zero-filled direct buffer in native byte order.
+     *
+     * @throws OutOfMemoryError if the direct-memory limit is exhausted (the message names the flag to raise)
+     */
+    static ByteBuffer allocate(int bytes) {
+        try {
+            return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        } catch (OutOfMemoryError e) {
+            OutOfMemoryError err = new OutOfMemoryError(e.getMessage()
+                    + ": cannot allocate " + bytes + " bytes off-heap; raise -XX:MaxDirectMemorySize"
+                    + " (defaults to -Xmx)");
+            err.initCause(e);
+            throw err;
+        }
+    }
+
+    /**
+     * Returns the native memory of a buffer obtained from {@link #allocate(int)} right away. The buffer and every
+     * view of it must not be accessed afterwards.
+     */
+    static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Leave it to the GC.
+        }
+    }
+}
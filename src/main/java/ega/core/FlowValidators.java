@@ -141,4 +141,96 @@ public class FlowValidators {
         }
         return vis;
     }
+
+    /* ===================== CSR overloads ===================== */
+
+    /**
+     * {@link #capacityConstraints(Graph)} for the array-based {@link CsrGraph}.
+     */
+    public static boolean capacityConstraints(CsrGraph g) {
+        final long[] origCap = g.origCap();
+        final long[] flow = g.flow();
+        for (int a = 0; a < origCap.length; a++) {
+            if (origCap[a] <= 0) continue;   // only original forward arcs
+            if (flow[a] < 0L || flow[a] > origCap[a]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@link #flowConservation(Graph, int, int)} for the array-based {@link CsrGraph}.
+     */
+    public static boolean flowConservation(CsrGraph g, int s, int t) {
+        final int n = g.size();
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final long[] origCap = g.origCap();
+        final long[] flow = g.flow();
+        long[] net = new long[n];
+
+        for (int u = 0; u < n; u++) {
+            for (int a = head[u]; a < head[u + 1]; a++) {
+                if (origCap[a] > 0) {
+                    net[u] -= flow[a];
+                    net[to[a]] += flow[a];
+                }
+            }
+        }
+
+        for (int u = 0; u < n; u++) {
+            if (u == s || u == t) continue;
+            if (net[u] != 0L) return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@link #saturatedCutExists(Graph, int, int)} for the array-based {@link CsrGraph}.
+     */
+    public static boolean saturatedCutExists(CsrGraph g, int s, int t) {
+        final boolean[] inS = residualReachable(g, s);
+        if (inS[t]) return false;
+
+        final int n = g.size();
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final long[] origCap = g.origCap();
+        final long[] cap = g.cap();
+        for (int u = 0; u < n; u++) {
+            if (!inS[u]) continue;
+            for (int a = head[u]; a < head[u + 1]; a++) {
+                if (origCap[a] <= 0) continue;
+                if (!inS[to[a]] && cap[a] > 0) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Residual reachability from {@code s} on a {@link CsrGraph} (array queue, no boxing).
+     */
+    private static boolean[] residualReachable(CsrGraph g, int s) {
+        final int n = g.size();
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final long[] cap = g.cap();
+        boolean[] vis = new boolean[n];
+        int[] q = new int[n];
+        int qh = 0, qt = 0;
+
+        vis[s] = true;
+        q[qt++] = s;
+
+        while (qh < qt) {
+            int u = q[qh++];
+            for (int a = head[u]; a < head[u + 1]; a++) {
+                int v = to[a];
+                if (cap[a] > 0 && !vis[v]) {
+                    vis[v] = true;
+                    q[qt++] = v;
+                }
+            }
+        }
+        return vis;
+    }
 }
@@ -112,6 +112,10 @@ public class Graph {
      * We intentionally do <b>not</b> call {@link #addEdge(int, int, long)} here, because that would rebuild
      * edges from scratch and lose the current residual/flow state. The goal is an exact snapshot clone.</p>
      *
+     * <p>This allocates one {@link Edge} per residual arc. When many independent copies of the same network are
+     * needed, freeze it once with {@link CsrGraph#from(Graph)} and use {@link CsrGraph#cloneGraph()}, which shares
+     * the topology and only copies two primitive arrays.</p>
+     *
      * @return a deep copy of this residual network
      */
     public Graph cloneGraph() {
@@ -0,0 +1,259 @@
+package ega.core;
+
+import java.util.Arrays;
+
+/**
+ * Two-phase builder that turns a bulk list of original edges into an immutable CSR {@link Topology}.
+ *
+ * <p>Phase 1 (ingestion): edges are appended to three flat primitive arrays ({@code tails}, {@code heads},
+ * {@code caps}), either one at a time via {@link #addEdge(int, int, long)} or in bulk via
+ * {@link #addEdges(int[], int[], long[], int, int)}. If the edge count is known up front
+ * ({@link #GraphBuilder(int, int)} or {@link #ensureCapacity(int)}), no regrowth happens at all.
+ *
+ * <p>Phase 2 ({@link #freeze()}):
+ * <ol>
+ *   <li>One pass counts the residual degree of every vertex (each edge contributes one arc at its tail
+ *       and one reverse arc at its head) and turns the counts into {@code head} offsets.</li>
+ *   <li>A second pass places every forward/reverse arc pair directly at its final position.</li>
+ * </ol>
+ *
+ * <p>Arcs are placed in insertion order per vertex, so the frozen topology has exactly the same arc order
+ * as a {@link Graph} fed with the same {@link Graph#addEdge(int, int, long)} calls.
+ * Use {@code new CsrGraph(builder.freeze())} to obtain a graph with a fresh {@link ResidualState}.
+ */
+public class GraphBuilder {
+
+    /** Number of vertices. */
+    private final int n;
+
+    /** Buffered edge tails. */
+    private int[] tails;
+
+    /** Buffered edge heads. */
+    private int[] heads;
+
+    /** Buffered edge capacities. */
+    private long[] caps;
+
+    /** Number of buffered edges. */
+    private int m;
+
+    /**
+     * Creates a builder for {@code n} vertices with a small initial edge buffer.
+     *
+     * @param n number of vertices
+     */
+    public GraphBuilder(int n) {
+        this(n, 16);
+    }
+
+    /**
+     * Creates a builder for {@code n} vertices, pre-sizing the edge buffer for {@code expectedEdges}.
+     *
+     * @param n             number of vertices
+     * @param expectedEdges number of original edges that will be added (a hint, not a limit)
+     */
+    public GraphBuilder(int n, int expectedEdges) {
+        if (n < 0) throw new IllegalArgumentException("n must be >= 0.");
+        if (expectedEdges < 0) throw new IllegalArgumentException("expectedEdges must be >= 0.");
+        this.n = n;
+        this.tails = new int[expectedEdges];
+        this.heads = new int[expectedEdges];
+        this.caps = new long[expectedEdges];
+    }
+
+    /**
+     * @return number of vertices
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return number of original edges added so far
+     */
+    public int edgeCount() {
+        return m;
+    }
+
+    /**
+     * Makes room for at least {@code edges} original edges in total.
+     *
+     * @param edges total edge capacity required
+     */
+    public void ensureCapacity(int edges) {
+        if (edges <= tails.length) return;
+        // Residual arcs are indexed by int, so 2 * edges must stay below Integer.MAX_VALUE.
+        if (edges > Integer.MAX_VALUE / 2) throw new IllegalArgumentException("Too many edges: " + edges);
+        int newCap = (int) Math.min(Integer.MAX_VALUE / 2, Math.max((long) edges, 2L * tails.length));
+        tails = Arrays.copyOf(tails, newCap);
+        heads = Arrays.copyOf(heads, newCap);
+        caps = Arrays.copyOf(caps, newCap);
+    }
+
+    /**
+     * Adds one original directed edge (u -> v) with capacity {@code cap}.
+     *
+     * @param u   tail vertex
+     * @param v   head vertex
+     * @param cap capacity of the original edge (>= 0)
+     */
+    public void addEdge(int u, int v, long cap) {
+        checkEdge(u, v, cap);
+        if (m == tails.length) ensureCapacity(m + 1);
+        tails[m] = u;
+        heads[m] = v;
+        caps[m] = cap;
+        m++;
+    }
+
+    /**
+     * Adds all edges given as parallel arrays.
+     *
+     * @see #addEdges(int[], int[], long[], int, int)
+     */
+    public void addEdges(int[] tails, int[] heads, long[] caps) {
+        if (tails.length != heads.length || tails.length != caps.length) {
+            throw new IllegalArgumentException("tails/heads/caps length mismatch.");
+        }
+        addEdges(tails, heads, caps, 0, tails.length);
+    }
+
+    /**
+     * Adds {@code count} edges starting at {@code offset} of the given parallel arrays.
+     *
+     * <p>Intended for chunked ingestion from a reader: the caller can reuse its chunk arrays, since the
+     * values are copied into the builder's own buffers with {@link System#arraycopy}.</p>
+     *
+     * @param tails  edge tails
+     * @param heads  edge heads
+     * @param caps   edge capacities
+     * @param offset first index to read
+     * @param count  number of edges to read
+     */
+    public void addEdges(int[] tails, int[] heads, long[] caps, int offset, int count) {
+        if (count < 0 || offset < 0 || offset + count > tails.length
+                || offset + count > heads.length || offset + count > caps.length) {
+            throw new IndexOutOfBoundsException("Invalid edge range [" + offset + ", " + (offset + count) + ").");
+        }
+        for (int i = offset; i < offset + count; i++) {
+            checkEdge(tails[i], heads[i], caps[i]);
+        }
+        ensureCapacity(m + count);
+        System.arraycopy(tails, offset, this.tails, m, count);
+        System.arraycopy(heads, offset, this.heads, m, count);
+        System.arraycopy(caps, offset, this.caps, m, count);
+        m += count;
+    }
+
+    /**
+     * Lays out all buffered edges as an immutable CSR topology and releases the edge buffers.
+     *
+     * <p>For every original edge {@code i = (u -> v, c)} the forward arc is placed in the block of {@code u}
+     * with {@code origCap = c}, and the reverse arc in the block of {@code v} with {@code origCap = 0}.
+     * The builder is empty afterwards and can be reused for a new graph on the same vertex set.</p>
+     *
+     * @return frozen topology
+     */
+    public Topology freeze() {
+        final int arcs = 2 * m;
+
+        // Pass 1: residual degree per vertex, then exclusive prefix sums into head[].
+        int[] head = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            head[tails[i] + 1]++;
+            head[heads[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            head[u + 1] += head[u];
+        }
+
+        // Pass 2: place forward/reverse arc pairs; pos[u] is the next free slot in u's block.
+        int[] pos = Arrays.copyOf(head, n);
+        int[] to = new int[arcs];
+        int[] rev = new int[arcs];
+        long[] origCap = new long[arcs];
+
+        for (int i = 0; i < m; i++) {
+            int u = tails[i], v = heads[i];
+            int fwd = pos[u]++;
+            int bwd = pos[v]++;
+
+            to[fwd] = v;
+            rev[fwd] = bwd;
+            origCap[fwd] = caps[i];
+
+            to[bwd] = u;
+            rev[bwd] = fwd;
+            // origCap[bwd] stays 0: pure residual arc
+        }
+
+        tails = new int[0];
+        heads = new int[0];
+        caps = new long[0];
+        m = 0;
+
+        return new Topology(n, head, to, rev, origCap);
+    }
+
+    /**
+     * Like {@link #freeze()}, but lays the arcs out directly in off-heap memory and returns a ready-to-solve
+     * {@link OffHeapGraph} in its initial residual state ({@code cap = origCap}, zero flow).
+     *
+     * <p>Only the per-vertex offsets are staged on the heap; no heap array of arc length is ever allocated
+     * besides the builder's own edge buffers, which are released afterwards.</p>
+     *
+     * @return off-heap graph; the caller owns it and must {@link OffHeapGraph#close() close} it
+     */
+    public OffHeapGraph freezeOffHeap() {
+        final int arcs = 2 * m;
+
+        // Pass 1: residual degree per vertex, then exclusive prefix sums (same as freeze()).
+        int[] pos = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            pos[tails[i] + 1]++;
+            pos[heads[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            pos[u + 1] += pos[u];
+        }
+
+        OffHeapIntArray head = new OffHeapIntArray(n + 1);
+        for (int u = 0; u <= n; u++) head.set(u, pos[u]);
+
+        // Pass 2: place forward/reverse arc pairs; pos[u] advances through u's block.
+        OffHeapIntArray to = new OffHeapIntArray(arcs);
+        OffHeapIntArray rev = new OffHeapIntArray(arcs);
+        OffHeapLongArray origCap = new OffHeapLongArray(arcs);
+        OffHeapLongArray cap = new OffHeapLongArray(arcs);
+        OffHeapLongArray flow = new OffHeapLongArray(arcs);
+
+        for (int i = 0; i < m; i++) {
+            int u = tails[i], v = heads[i];
+            int fwd = pos[u]++;
+            int bwd = pos[v]++;
+
+            to.set(fwd, v);
+            rev.set(fwd, bwd);
+            origCap.set(fwd, caps[i]);
+            cap.set(fwd, caps[i]);
+
+            to.set(bwd, u);
+            rev.set(bwd, fwd);
+        }
+
+        tails = new int[0];
+        heads = new int[0];
+        caps = new long[0];
+        m = 0;
+
+        return new OffHeapGraph(n, head, to, rev, origCap, cap, flow);
+    }
+
+    private void checkEdge(int u, int v, long cap) {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IllegalArgumentException("Edge (" + u + ", " + v + ") out of range for n=" + n + ".");
+        }
+        if (cap < 0) throw new IllegalArgumentException("Capacity must be >= 0: " + cap);
+    }
+}
@@ -0,0 +1,155 @@
+package ega.core;
+
+/**
+ * Residual network of a 4- or 8-connected pixel grid with terminal links, as used in image segmentation.
+ *
+ * <p>Unlike {@link Graph} and {@link CsrGraph}, no neighbour indices are stored: the neighbour of pixel
+ * {@code p = y * width + x} in direction {@code d} is computed from {@link #DX}/{@link #DY}. Per pixel the network
+ * holds
+ * <ul>
+ *   <li>{@code cap[p * degree + d]}: residual capacity of the n-link {@code p -> neighbour(p, d)}; the reverse
+ *       arc is {@code cap[q * degree + opposite(d)]} of the neighbour q,</li>
+ *   <li>{@code sourceCap[p]}: residual capacity of the t-link {@code s -> p},</li>
+ *   <li>{@code sinkCap[p]}: residual capacity of the t-link {@code p -> t}.</li>
+ * </ul>
+ * The source s and sink t are implicit. Directions come in opposite pairs {@code (d, d ^ 1)}: E/W, S/N, and for
+ * 8-connectivity additionally SE/NW and SW/NE.
+ */
+public class GridGraph {
+
+    /** Neighbourhood of a pixel. */
+    public enum Connectivity {
+        FOUR(4), EIGHT(8);
+
+        public final int degree;
+
+        Connectivity(int degree) {
+            this.degree = degree;
+        }
+    }
+
+    /** x offset per direction (E, W, S, N, SE, NW, SW, NE). */
+    public static final int[] DX = {1, -1, 0, 0, 1, -1, -1, 1};
+
+    /** y offset per direction (E, W, S, N, SE, NW, SW, NE). */
+    public static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private final int width, height, degree;
+
+    /** Residual n-link capacities, {@code degree} entries per pixel. */
+    private final long[] cap;
+
+    /** Residual t-link capacities s -> p. */
+    private final long[] sourceCap;
+
+    /** Residual t-link capacities p -> t. */
+    private final long[] sinkCap;
+
+    /**
+     * Creates a grid with all capacities 0.
+     *
+     * @param width        number of columns
+     * @param height       number of rows
+     * @param connectivity 4- or 8-neighbourhood
+     */
+    public GridGraph(int width, int height, Connectivity connectivity) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("width and height must be > 0.");
+        if ((long) width * height * connectivity.degree > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.degree = connectivity.degree;
+        this.cap = new long[width * height * degree];
+        this.sourceCap = new long[width * height];
+        this.sinkCap = new long[width * height];
+    }
+
+    private GridGraph(GridGraph other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.degree = other.degree;
+        this.cap = other.cap.clone();
+        this.sourceCap = other.sourceCap.clone();
+        this.sinkCap = other.sinkCap.clone();
+    }
+
+    /** @return number of columns */
+    public int width() {
+        return width;
+    }
+
+    /** @return number of rows */
+    public int height() {
+        return height;
+    }
+
+    /** @return number of pixels */
+    public int size() {
+        return width * height;
+    }
+
+    /** @return number of directions per pixel (4 or 8) */
+    public int degree() {
+        return degree;
+    }
+
+    /** @return pixel index of (x, y) */
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /** @return direction pointing back along direction {@code d} */
+    public static int opposite(int d) {
+        return d ^ 1;
+    }
+
+    /**
+     * @return neighbour of pixel {@code p} in direction {@code d}, or -1 if it lies outside the grid
+     */
+    public int neighbour(int p, int d) {
+        int x = p % width + DX[d];
+        int y = p / width + DY[d];
+        return (x < 0 || x >= width || y < 0 || y >= height) ? -1 : y * width + x;
+    }
+
+    /**
+     * Sets the capacity of the n-link {@code p -> neighbour(p, d)}. The reverse direction is set separately.
+     */
+    public void setCapacity(int p, int d, long c) {
+        if (c < 0) throw new IllegalArgumentException("Capacity must be >= 0: " + c);
+        if (neighbour(p, d) < 0) throw new IllegalArgumentException("No neighbour of " + p + " in direction " + d);
+        cap[p * degree + d] = c;
+    }
+
+    /**
+     * Sets the t-link capacities {@code s -> p} and {@code p -> t}.
+     */
+    public void setTerminalCapacities(int p, long source, long sink) {
+        if (source < 0 || sink < 0) throw new IllegalArgumentException("Capacities must be >= 0.");
+        sourceCap[p] = source;
+        sinkCap[p] = sink;
+    }
+
+    /** @return residual n-link capacities (index {@code p * degree + d}; the backing array, not a copy) */
+    public long[] cap() {
+        return cap;
+    }
+
+    /** @return residual t-link capacities s -> p (the backing array) */
+    public long[] sourceCap() {
+        return sourceCap;
+    }
+
+    /** @return residual t-link capacities p -> t (the backing array) */
+    public long[] sinkCap() {
+        return sinkCap;
+    }
+
+    /**
+     * @return deep copy of the current residual capacities
+     */
+    public GridGraph cloneGraph() {
+        return new GridGraph(this);
+    }
+}
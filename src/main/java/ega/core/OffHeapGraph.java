@@ -0,0 +1,178 @@
+package ega.core;
+
+/**
+ * Residual network in CSR layout whose per-arc arrays live outside the Java heap.
+ *
+ * <p>Same arc numbering and semantics as {@link CsrGraph} ({@code head}, {@code to}, {@code rev},
+ * {@code origCap}, {@code cap}, {@code flow}), but every array is an {@link OffHeapIntArray} or
+ * {@link OffHeapLongArray}. For networks with hundreds of millions of arcs this keeps the heap small and
+ * the GC out of the picture: there are no per-arc objects to promote and no large primitive arrays to copy.
+ *
+ * <p>Lifetime is explicit: create the graph in a try-with-resources block and {@link #close()} it when the
+ * computation is done. Closing frees the native memory of all arrays allocated here right away; after that
+ * every accessor fails. The arrays count against {@code -XX:MaxDirectMemorySize} (default: the {@code -Xmx}
+ * value), so graphs larger than the heap need that flag raised, e.g. {@code -XX:MaxDirectMemorySize=16g}.
+ *
+ * <p>Accessors are per-element methods instead of array getters; solvers call them directly in their inner loops.
+ */
+public final class OffHeapGraph implements AutoCloseable {
+
+    /** Number of vertices. */
+    private final int n;
+
+    /** Number of residual arcs. */
+    private final int m;
+
+    private final OffHeapIntArray head;
+    private final OffHeapIntArray to;
+    private final OffHeapIntArray rev;
+    private final OffHeapLongArray origCap;
+    private final OffHeapLongArray cap;
+    private final OffHeapLongArray flow;
+
+    /**
+     * Assembles a graph from already populated off-heap arrays (taken over, not copied).
+     *
+     * @param n       number of vertices
+     * @param head    arc offsets (length n+1)
+     * @param to      head vertex per arc
+     * @param rev     global reverse arc id per arc
+     * @param origCap original capacity per arc
+     * @param cap     residual capacity per arc
+     * @param flow    flow per arc
+     */
+    public OffHeapGraph(int n, OffHeapIntArray head, OffHeapIntArray to, OffHeapIntArray rev,
+                        OffHeapLongArray origCap, OffHeapLongArray cap, OffHeapLongArray flow) {
+        if (head.length() != n + 1) throw new IllegalArgumentException("head must have length n+1.");
+        int m = to.length();
+        if (rev.length() != m || origCap.length() != m || cap.length() != m || flow.length() != m) {
+            throw new IllegalArgumentException("Arc array length mismatch.");
+        }
+        this.n = n;
+        this.m = m;
+        this.head = head;
+        this.to = to;
+        this.rev = rev;
+        this.origCap = origCap;
+        this.cap = cap;
+        this.flow = flow;
+    }
+
+    /**
+     * Copies a heap CSR graph (topology and current residual state) off-heap.
+     *
+     * @param g source graph
+     * @return off-heap copy of {@code g}
+     */
+    public static OffHeapGraph from(CsrGraph g) {
+        final int n = g.size();
+        final int m = g.arcCount();
+
+        OffHeapIntArray head = new OffHeapIntArray(n + 1);
+        for (int u = 0; u <= n; u++) head.set(u, g.head()[u]);
+
+        OffHeapIntArray to = new OffHeapIntArray(m);
+        OffHeapIntArray rev = new OffHeapIntArray(m);
+        OffHeapLongArray origCap = new OffHeapLongArray(m);
+        OffHeapLongArray cap = new OffHeapLongArray(m);
+        OffHeapLongArray flow = new OffHeapLongArray(m);
+        for (int a = 0; a < m; a++) {
+            to.set(a, g.to()[a]);
+            rev.set(a, g.rev()[a]);
+            origCap.set(a, g.origCap()[a]);
+            cap.set(a, g.cap()[a]);
+            flow.set(a, g.flow()[a]);
+        }
+
+        return new OffHeapGraph(n, head, to, rev, origCap, cap, flow);
+    }
+
+    /**
+     * @return number of vertices
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return number of residual arcs
+     */
+    public int arcCount() {
+        return m;
+    }
+
+    /** @return first arc id of {@code u}; arcs of {@code u} are {@code head(u) .. head(u+1)-1} */
+    public int head(int u) {
+        return head.get(u);
+    }
+
+    /** @return head vertex of arc {@code a} */
+    public int to(int a) {
+        return to.get(a);
+    }
+
+    /** @return global id of the reverse arc of {@code a} */
+    public int rev(int a) {
+        return rev.get(a);
+    }
+
+    /** @return original capacity of arc {@code a} (0 for pure residual arcs) */
+    public long origCap(int a) {
+        return origCap.get(a);
+    }
+
+    /** @return current residual capacity of arc {@code a} */
+    public long cap(int a) {
+        return cap.get(a);
+    }
+
+    /** @return current flow on arc {@code a} */
+    public long flow(int a) {
+        return flow.get(a);
+    }
+
+    /**
+     * Sends {@code delta} units along arc {@code a}: decreases its residual capacity, increases its flow,
+     * and applies the opposite update to the reverse arc.
+     *
+     * @param a     arc id
+     * @param delta amount to push ({@code <= cap(a)})
+     */
+    public void push(int a, long delta) {
+        int r = rev.get(a);
+        cap.add(a, -delta);
+        flow.add(a, delta);
+        cap.add(r, delta);
+        flow.add(r, -delta);
+    }
+
+    /**
+     * Copies the current residual capacities and flows into {@code state} (e.g. for validation with
+     * {@link FlowValidators} on a {@link CsrGraph} over the same topology).
+     *
+     * @param state heap state with the same arc count
+     */
+    public void copyStateTo(ResidualState state) {
+        if (state.cap().length != m) throw new IllegalArgumentException("Arc count mismatch.");
+        long[] c = state.cap();
+        long[] f = state.flow();
+        for (int a = 0; a < m; a++) {
+            c[a] = cap.get(a);
+            f[a] = flow.get(a);
+        }
+    }
+
+    /**
+     * Frees all off-heap arrays. The graph must not be used afterwards, and must not be closed while a solver
+     * is still running on it.
+     */
+    @Override
+    public void close() {
+        head.release();
+        to.release();
+        rev.release();
+        origCap.release();
+        cap.release();
+        flow.release();
+    }
+}
@@ -0,0 +1,95 @@
+package ega.core;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Fixed-length {@code int} array stored outside the Java heap.
+ *
+ * <p>Same paging scheme as {@link OffHeapLongArray} (pages of {@link OffHeapLongArray#PAGE_SIZE} elements),
+ * so element indices map to pages identically for both element types.
+ */
+public final class OffHeapIntArray {
+
+    private static final int PAGE_SHIFT = OffHeapLongArray.PAGE_SHIFT;
+    private static final int PAGE_SIZE = OffHeapLongArray.PAGE_SIZE;
+    private static final int PAGE_MASK = OffHeapLongArray.PAGE_MASK;
+
+    /** Element pages; {@code null} after {@link #release()}. */
+    private IntBuffer[] pages;
+
+    /** Buffers allocated by this array, freed by {@link #release()}; {@code null} for wrapped buffers. */
+    private ByteBuffer[] owned;
+
+    /** Number of elements. */
+    private final int length;
+
+    private OffHeapIntArray(IntBuffer[] pages, int length) {
+        this.pages = pages;
+        this.length = length;
+    }
+
+    /**
+     * Allocates a zero-filled off-heap array in native byte order.
+     *
+     * @param length number of elements
+     */
+    public OffHeapIntArray(int length) {
+        if (length < 0) throw new IllegalArgumentException("length must be >= 0.");
+        this.length = length;
+        this.pages = new IntBuffer[OffHeapLongArray.pageCount(length)];
+        this.owned = new ByteBuffer[pages.length];
+        for (int p = 0; p < pages.length; p++) {
+            int elems = Math.min(PAGE_SIZE, length - (p << PAGE_SHIFT));
+            owned[p] = DirectMemory.allocate(elems * Integer.BYTES);
+            pages[p] = owned[p].asIntBuffer();
+        }
+    }
+
+    /**
+     * Views existing byte buffers as one int array.
+     *
+     * @see OffHeapLongArray#wrap(ByteBuffer[], int)
+     */
+    public static OffHeapIntArray wrap(ByteBuffer[] buffers, int length) {
+        if (buffers.length != OffHeapLongArray.pageCount(length)) {
+            throw new IllegalArgumentException("Wrong number of pages.");
+        }
+        IntBuffer[] pages = new IntBuffer[buffers.length];
+        for (int p = 0; p < buffers.length; p++) {
+            pages[p] = buffers[p].asIntBuffer();
+            if (pages[p].capacity() < Math.min(PAGE_SIZE, length - (p << PAGE_SHIFT))) {
+                throw new IllegalArgumentException("Page " + p + " is too small.");
+            }
+        }
+        return new OffHeapIntArray(pages, length);
+    }
+
+    /**
+     * @return number of elements
+     */
+    public int length() {
+        return length;
+    }
+
+    public int get(int i) {
+        return pages[i >>> PAGE_SHIFT].get(i & PAGE_MASK);
+    }
+
+    public void set(int i, int v) {
+        pages[i >>> PAGE_SHIFT].put(i & PAGE_MASK, v);
+    }
+
+    /**
+     * Drops all page references.
+     *
+     * @see OffHeapLongArray#release()
+     */
+    public void release() {
+        pages = null;
+        if (owned != null) {
+            for (ByteBuffer b : owned) DirectMemory.free(b);
+            owned = null;
+        }
+    }
+}
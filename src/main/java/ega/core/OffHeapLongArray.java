@@ -0,0 +1,139 @@
+package ega.core;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Fixed-length {@code long} array stored outside the Java heap.
+ *
+ * <p>A single {@link ByteBuffer} is limited to 2 GiB, so the array is split into pages of
+ * {@link #PAGE_SIZE} elements; element {@code i} lives in page {@code i >>> PAGE_SHIFT} at offset
+ * {@code i & PAGE_MASK}. Pages are either direct buffers allocated here, or caller-provided buffers
+ * (e.g. memory-mapped file regions) via {@link #wrap(ByteBuffer[], int)}.
+ *
+ * <p>The heap only holds the small page table, so the GC never copies or scans the element data. Allocated
+ * pages count against {@code -XX:MaxDirectMemorySize}, which defaults to {@code -Xmx}; arrays larger than the
+ * heap need the flag raised (see {@link DirectMemory}).
+ */
+public final class OffHeapLongArray {
+
+    /** log2 of the number of elements per page. */
+    public static final int PAGE_SHIFT = 26;
+
+    /** Elements per page (64 Mi longs = 512 MiB). */
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    /** Mask extracting the in-page offset from an element index. */
+    public static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /** Element pages; {@code null} after {@link #release()}. */
+    private LongBuffer[] pages;
+
+    /** Buffers allocated by this array, freed by {@link #release()}; {@code null} for wrapped buffers. */
+    private ByteBuffer[] owned;
+
+    /** Number of elements. */
+    private final int length;
+
+    private OffHeapLongArray(LongBuffer[] pages, int length) {
+        this.pages = pages;
+        this.length = length;
+    }
+
+    /**
+     * Allocates a zero-filled off-heap array in native byte order.
+     *
+     * @param length number of elements
+     */
+    public OffHeapLongArray(int length) {
+        if (length < 0) throw new IllegalArgumentException("length must be >= 0.");
+        this.length = length;
+        this.pages = new LongBuffer[pageCount(length)];
+        this.owned = new ByteBuffer[pages.length];
+        for (int p = 0; p < pages.length; p++) {
+            int elems = Math.min(PAGE_SIZE, length - (p << PAGE_SHIFT));
+            owned[p] = DirectMemory.allocate(elems * Long.BYTES);
+            pages[p] = owned[p].asLongBuffer();
+        }
+    }
+
+    /**
+     * Views existing byte buffers as one long array. Page {@code p} must hold at least
+     * {@code min(PAGE_SIZE, length - p * PAGE_SIZE)} longs starting at its position; the buffer's
+     * byte order is used as-is.
+     *
+     * @param buffers one buffer per page
+     * @param length  total number of elements
+     * @return array view over {@code buffers} (no copy)
+     */
+    public static OffHeapLongArray wrap(ByteBuffer[] buffers, int length) {
+        if (buffers.length != pageCount(length)) throw new IllegalArgumentException("Wrong number of pages.");
+        LongBuffer[] pages = new LongBuffer[buffers.length];
+        for (int p = 0; p < buffers.length; p++) {
+            pages[p] = buffers[p].asLongBuffer();
+            if (pages[p].capacity() < Math.min(PAGE_SIZE, length - (p << PAGE_SHIFT))) {
+                throw new IllegalArgumentException("Page " + p + " is too small.");
+            }
+        }
+        return new OffHeapLongArray(pages, length);
+    }
+
+    /**
+     * Allocates a new off-heap array with the same contents as {@code src}, copying page by page with
+     * bulk buffer transfers (no per-element loop).
+     *
+     * @param src array to copy (e.g. a read-only mapped file section)
+     * @return independent, writable copy in native byte order
+     */
+    public static OffHeapLongArray copyOf(OffHeapLongArray src) {
+        OffHeapLongArray dst = new OffHeapLongArray(src.length);
+        for (int p = 0; p < dst.pages.length; p++) {
+            dst.pages[p].duplicate().put(src.pages[p].duplicate().limit(dst.pages[p].capacity()));
+        }
+        return dst;
+    }
+
+    /**
+     * @return number of pages needed for {@code length} elements
+     */
+    public static int pageCount(int length) {
+        return (int) (((long) length + PAGE_SIZE - 1) >>> PAGE_SHIFT);
+    }
+
+    /**
+     * @return number of elements
+     */
+    public int length() {
+        return length;
+    }
+
+    public long get(int i) {
+        return pages[i >>> PAGE_SHIFT].get(i & PAGE_MASK);
+    }
+
+    public void set(int i, long v) {
+        pages[i >>> PAGE_SHIFT].put(i & PAGE_MASK, v);
+    }
+
+    /**
+     * Adds {@code delta} to element {@code i} (read-modify-write, not atomic).
+     */
+    public void add(int i, long delta) {
+        LongBuffer page = pages[i >>> PAGE_SHIFT];
+        int off = i & PAGE_MASK;
+        page.put(off, page.get(off) + delta);
+    }
+
+    /**
+     * Drops all page references; any later access fails with a {@link NullPointerException}. Pages allocated
+     * by this array are freed immediately (see {@link DirectMemory}); wrapped buffers stay with their owner.
+     * Calling it again has no effect.
+     */
+    public void release() {
+        pages = null;
+        if (owned != null) {
+            for (ByteBuffer b : owned) DirectMemory.free(b);
+            owned = null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ega.core;
+
+/**
+ * Mutable per-arc state of a residual network: residual capacity and flow.
+ *
+ * <p>Arc ids refer to a {@link Topology}. Algorithms update {@code cap} and {@code flow} in-place;
+ * the topology itself is never touched, so it can be shared by any number of states (and solvers running
+ * concurrently on different states). Copying a state is two primitive array copies, no per-arc objects.
+ */
+public final class ResidualState {
+
+    /** Current residual capacity per arc. */
+    private final long[] cap;
+
+    /** Current flow per arc (reverse arcs carry negative flow). */
+    private final long[] flow;
+
+    /**
+     * Creates the initial state for {@code topo}: {@code cap = origCap} and zero flow.
+     *
+     * @param topo arc structure this state belongs to
+     */
+    public ResidualState(Topology topo) {
+        this(topo.origCap().clone(), new long[topo.arcCount()]);
+    }
+
+    /**
+     * Wraps existing arrays (taken over, not copied).
+     */
+    ResidualState(long[] cap, long[] flow) {
+        if (cap.length != flow.length) throw new IllegalArgumentException("cap/flow length mismatch.");
+        this.cap = cap;
+        this.flow = flow;
+    }
+
+    /**
+     * Copies this state into freshly allocated arrays (two {@link System#arraycopy} calls).
+     *
+     * @return an independent copy for the same topology
+     */
+    public ResidualState copy() {
+        final int m = cap.length;
+        long[] capCopy = new long[m];
+        long[] flowCopy = new long[m];
+        System.arraycopy(cap, 0, capCopy, 0, m);
+        System.arraycopy(flow, 0, flowCopy, 0, m);
+        return new ResidualState(capCopy, flowCopy);
+    }
+
+    /**
+     * Overwrites this state with {@code other} without allocating.
+     *
+     * <p>Typical use: keep one scratch state per solver and reset it from a pristine base state
+     * before every run.</p>
+     *
+     * @param other state of the same topology
+     */
+    public void copyFrom(ResidualState other) {
+        if (other.cap.length != cap.length) throw new IllegalArgumentException("Arc count mismatch.");
+        System.arraycopy(other.cap, 0, cap, 0, cap.length);
+        System.arraycopy(other.flow, 0, flow, 0, flow.length);
+    }
+
+    /** @return current residual capacity per arc */
+    public long[] cap() {
+        return cap;
+    }
+
+    /** @return current flow per arc */
+    public long[] flow() {
+        return flow;
+    }
+}
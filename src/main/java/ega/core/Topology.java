@@ -0,0 +1,112 @@
+package ega.core;
+
+/**
+ * Immutable arc structure of a residual network in CSR layout.
+ *
+ * <p>Holds everything that never changes while a max-flow algorithm runs:
+ * <ul>
+ *   <li>{@code head[u] .. head[u+1]-1}: arc ids leaving {@code u} ({@code head} has length {@code n+1})</li>
+ *   <li>{@code to[a]}: head vertex of arc {@code a}</li>
+ *   <li>{@code rev[a]}: global arc id of the reverse arc</li>
+ *   <li>{@code origCap[a]}: original capacity (0 for pure residual reverse arcs)</li>
+ * </ul>
+ *
+ * <p>The mutable part (residual capacity and flow per arc) lives in {@link ResidualState}, so one
+ * topology can back many independent residual states. Accessors return the backing arrays without
+ * copying; they must be treated as read-only.
+ */
+public final class Topology {
+
+    /** Number of vertices. Vertices are indexed 0..n-1. */
+    private final int n;
+
+    /** Arc offsets per vertex (length n+1). */
+    private final int[] head;
+
+    /** Head vertex per arc. */
+    private final int[] to;
+
+    /** Global id of the reverse arc per arc. */
+    private final int[] rev;
+
+    /** Original capacity per arc (0 for pure residual arcs). */
+    private final long[] origCap;
+
+    /**
+     * Wraps pre-built CSR arrays. The arrays are taken over, not copied.
+     *
+     * @param n       number of vertices
+     * @param head    arc offsets (length n+1, non-decreasing, {@code head[0] == 0})
+     * @param to      head vertex per arc
+     * @param rev     reverse arc id per arc
+     * @param origCap original capacity per arc
+     */
+    Topology(int n, int[] head, int[] to, int[] rev, long[] origCap) {
+        this.n = n;
+        this.head = head;
+        this.to = to;
+        this.rev = rev;
+        this.origCap = origCap;
+    }
+
+    /**
+     * Wraps externally produced CSR arrays (e.g. loaded from a file) after checking their consistency:
+     * monotone offsets, in-range heads, and {@code rev} being an involution that pairs each arc with an arc
+     * pointing back to its tail.
+     *
+     * @return topology over the given arrays (taken over, not copied)
+     * @throws IllegalArgumentException if the arrays do not form a valid residual topology
+     */
+    public static Topology of(int n, int[] head, int[] to, int[] rev, long[] origCap) {
+        final int m = to.length;
+        if (head.length != n + 1 || head[0] != 0 || head[n] != m) {
+            throw new IllegalArgumentException("Invalid head offsets.");
+        }
+        if (rev.length != m || origCap.length != m) throw new IllegalArgumentException("Arc array length mismatch.");
+        for (int u = 0; u < n; u++) {
+            if (head[u] > head[u + 1]) throw new IllegalArgumentException("Offsets not monotone at vertex " + u + ".");
+            for (int a = head[u]; a < head[u + 1]; a++) {
+                int v = to[a], r = rev[a];
+                if (v < 0 || v >= n) throw new IllegalArgumentException("Arc " + a + " has invalid head " + v + ".");
+                if (r < 0 || r >= m || rev[r] != a || to[r] != u || r < head[v] || r >= head[v + 1]) {
+                    throw new IllegalArgumentException("Arc " + a + " has an inconsistent reverse arc.");
+                }
+            }
+        }
+        return new Topology(n, head, to, rev, origCap);
+    }
+
+    /**
+     * @return number of vertices
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return number of residual arcs (twice the number of original edges)
+     */
+    public int arcCount() {
+        return to.length;
+    }
+
+    /** @return arc offsets per vertex (length {@code n+1}) */
+    public int[] head() {
+        return head;
+    }
+
+    /** @return head vertex per arc */
+    public int[] to() {
+        return to;
+    }
+
+    /** @return global reverse-arc id per arc */
+    public int[] rev() {
+        return rev;
+    }
+
+    /** @return original capacity per arc */
+    public long[] origCap() {
+        return origCap;
+    }
+}
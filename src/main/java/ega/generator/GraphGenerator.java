@@ -1,7 +1,7 @@
 package ega.generator;
 
-import ega.algorithms.Dinic;
-import ega.core.Edge;
+import ega.algorithms.MultiSinkMaxFlow;
+import ega.core.CsrGraph;
 import ega.core.Graph;
 
 import java.awt.geom.Line2D;
@@ -98,12 +98,20 @@ public class GraphGenerator {
         }
 
         // 7) Select (s,t) with a relaxed non-degeneracy criterion and trivial-cut filtering.
+        //    Every candidate pair needs one max-flow run: freeze the topology once and reset a single
+        //    scratch residual state from the pristine one per run instead of cloning the object graph.
+        CsrGraph base = CsrGraph.from(g);
+        CsrGraph work = base.cloneGraph();
+
         int s = -1, t = -1;
         outer:
         for (int candS = 0; candS < n; candS++) {
+            // All sinks of one source are solved on one warm-started residual state.
+            work.state().copyFrom(base.state());
+            MultiSinkMaxFlow flows = new MultiSinkMaxFlow(work, candS);
             for (int candT = 0; candT < n; candT++) {
                 if (candS == candT) continue;
-                if (isGoodPair(g, candS, candT)) {
+                if (isGoodPair(base, work, flows, candS, candT)) {
                     s = candS;
                     t = candT;
                     break outer;
@@ -302,24 +310,31 @@ public class GraphGenerator {
      * Total residual outgoing capacity of s, counting only original edges (origCap>0),
      * and ignoring pure residual edges (origCap==0).
      */
-    private static long totalOutCapacity(Graph g, int s) {
+    private static long totalOutCapacity(CsrGraph g, int s) {
+        final int[] head = g.head();
+        final long[] cap = g.cap();
+        final long[] origCap = g.origCap();
         long sum = 0;
-        for (Edge e : g.adj(s)) {
-            if (e.cap > 0 && e.origCap > 0) sum += e.cap;
+        for (int a = head[s]; a < head[s + 1]; a++) {
+            if (cap[a] > 0 && origCap[a] > 0) sum += cap[a];
         }
         return sum;
     }
 
     /**
      * Total residual incoming capacity into t, counting only original edges (origCap>0).
+     *
+     * <p>Every original edge u->t has its reverse arc in t's own block, so scanning t's arcs is enough.
      */
-    private static long totalInCapacity(Graph g, int t) {
+    private static long totalInCapacity(CsrGraph g, int t) {
+        final int[] head = g.head();
+        final int[] rev = g.rev();
+        final long[] cap = g.cap();
+        final long[] origCap = g.origCap();
         long sum = 0;
-        int n = g.size();
-        for (int u = 0; u < n; u++) {
-            for (Edge e : g.adj(u)) {
-                if (e.cap > 0 && e.origCap > 0 && e.to == t) sum += e.cap;
-            }
+        for (int a = head[t]; a < head[t + 1]; a++) {
+            int in = rev[a]; // arc (to[a] -> t)
+            if (cap[in] > 0 && origCap[in] > 0) sum += cap[in];
         }
         return sum;
     }
@@ -327,8 +342,9 @@ public class GraphGenerator {
     /**
      * Relaxed but effective (s,t) quality criterion:
      *
-     * <p>We compute max-flow f on a cloned graph (so the original stays intact). On the final residual network,
-     * compute S = vertices reachable from s using edges with residual capacity cap>0.
+     * <p>We compute max-flow f on a scratch residual state (so the original stays intact), continuing from the
+     * state left by the previous sink of the same source. On the final residual network (after recovering a
+     * valid flow), compute S = vertices reachable from s using edges with residual capacity cap>0.
      *
      * <p>We reject:
      * <ul>
@@ -336,28 +352,39 @@ public class GraphGenerator {
      *   <li>"Pure s-cut": all original out-neighbors of s lie outside S (i.e., only s is in S near the source)</li>
      *   <li>"Pure t-cut": all original in-neighbors of t come from S (i.e., the cut isolates only t)</li>
      * </ul>
+     *
+     * @param base  pristine network (never modified)
+     * @param work  scratch network over the same topology; its residual state is overwritten
+     * @param flows warm-started solver for source {@code s} over {@code work}
      */
-    private static boolean isGoodPair(Graph g, int s, int t) {
+    private static boolean isGoodPair(CsrGraph base, CsrGraph work, MultiSinkMaxFlow flows, int s, int t) {
         if (s == t) return false;
 
-        long capOutS = totalOutCapacity(g, s);
-        long capInT = totalInCapacity(g, t);
+        long capOutS = totalOutCapacity(base, s);
+        long capInT = totalInCapacity(base, t);
 
-        // Compute max-flow on a clone (Dinic modifies the residual network).
-        Graph cloned = g.cloneGraph();
-        long f = new Dinic().maxFlow(cloned, s, t);
+        // Compute max-flow on the scratch state (modifies the residual network).
+        long f = flows.maxFlow(t);
 
         // Filter out trivial cuts.
         if (f == capOutS) return false;
         if (f == capInT) return false;
 
+        // Residual reachability needs a flow, not a preflow.
+        flows.recoverFlow();
+
         // Compute S in the final residual network.
-        boolean[] inS = residualReachable(cloned, s);
+        boolean[] inS = residualReachable(work, s);
+
+        final int[] head = base.head();
+        final int[] to = base.to();
+        final int[] rev = base.rev();
+        final long[] origCap = base.origCap();
 
         // Not a "pure s-cut": at least one original out-neighbor of s stays in S.
         boolean sHasNeighborInS = false;
-        for (Edge e : g.adj(s)) {
-            if (e.origCap > 0 && inS[e.to]) {
+        for (int a = head[s]; a < head[s + 1]; a++) {
+            if (origCap[a] > 0 && inS[to[a]]) {
                 sHasNeighborInS = true;
                 break;
             }
@@ -366,14 +393,11 @@ public class GraphGenerator {
 
         // Not a "pure t-cut": at least one original in-neighbor u->t has u on the T-side (u not in S).
         boolean tHasInNeighborInT = false;
-        for (int u = 0; u < g.size(); u++) {
-            for (Edge e : g.adj(u)) {
-                if (e.origCap > 0 && e.to == t && !inS[u]) {
-                    tHasInNeighborInT = true;
-                    break;
-                }
+        for (int a = head[t]; a < head[t + 1]; a++) {
+            if (origCap[rev[a]] > 0 && !inS[to[a]]) {
+                tHasInNeighborInT = true;
+                break;
             }
-            if (tHasInNeighborInT) break;
         }
         if (!tHasInNeighborInT) return false;
 
@@ -386,20 +410,25 @@ public class GraphGenerator {
      * <p>Must be called on the <b>final residual network</b> (after max-flow computation) if used
      * for cut-based reasoning.
      */
-    private static boolean[] residualReachable(Graph g, int s) {
-        int n = g.size();
+    private static boolean[] residualReachable(CsrGraph g, int s) {
+        final int n = g.size();
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final long[] cap = g.cap();
         boolean[] vis = new boolean[n];
-        ArrayDeque<Integer> q = new ArrayDeque<>();
+        int[] q = new int[n];
+        int qh = 0, qt = 0;
 
-        q.add(s);
+        q[qt++] = s;
         vis[s] = true;
 
-        while (!q.isEmpty()) {
-            int u = q.poll();
-            for (Edge e : g.adj(u)) {
-                if (e.cap > 0 && !vis[e.to]) {
-                    vis[e.to] = true;
-                    q.add(e.to);
+        while (qh < qt) {
+            int u = q[qh++];
+            for (int a = head[u]; a < head[u + 1]; a++) {
+                int v = to[a];
+                if (cap[a] > 0 && !vis[v]) {
+                    vis[v] = true;
+                    q[qt++] = v;
                 }
             }
         }
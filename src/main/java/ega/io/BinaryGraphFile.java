@@ -0,0 +1,312 @@
+package ega.io;
+
+import ega.core.CsrGraph;
+import ega.core.Graph;
+import ega.core.OffHeapGraph;
+import ega.core.OffHeapIntArray;
+import ega.core.OffHeapLongArray;
+import ega.core.Topology;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary file format for max-flow instances, designed to be memory-mapped.
+ *
+ * <p>Layout (all values little-endian, every section starts at an 8-byte aligned offset):
+ * <pre>
+ *   offset  size        content
+ *   0       8           magic "EGAFLOW\0"
+ *   8       4           format version (1)
+ *   12      4           n      (number of vertices)
+ *   16      4           m      (number of residual arcs, 2 * original edges)
+ *   20      4           s      (source, -1 if none)
+ *   24      4           t      (sink, -1 if none)
+ *   28      4           reserved (0)
+ *   32      4*(n+1)     head[]    arc offsets            (padded to 8 bytes)
+ *   ...     4*m         to[]      head vertex per arc    (padded to 8 bytes)
+ *   ...     4*m         rev[]     reverse arc id per arc (padded to 8 bytes)
+ *   ...     8*m         origCap[] original capacity per arc
+ * </pre>
+ *
+ * <p>The arrays are exactly those of {@link CsrGraph}, so {@link #open(Path)} does no parsing: the topology
+ * sections ({@code head}, {@code to}, {@code rev}, {@code origCap}) are mapped read-only and used by the solvers
+ * in place, after one validating pass over {@code head}, {@code to} and {@code rev}. Loading is not zero-copy,
+ * though: the mutable residual state is materialized in direct memory, {@code cap} as a bulk native copy of the
+ * mapped {@code origCap} section and {@code flow} as a zero-filled array, i.e. 16 bytes per arc. That memory
+ * counts against {@code -XX:MaxDirectMemorySize} (default: the {@code -Xmx} value). The file itself is never
+ * written and only needs read permission.
+ */
+public final class BinaryGraphFile {
+
+    /** File magic: "EGAFLOW" followed by a zero byte. */
+    private static final long MAGIC = 0x00574F4C46414745L;
+
+    /** Current format version. */
+    private static final int VERSION = 1;
+
+    /** Header size in bytes. */
+    private static final int HEADER_BYTES = 32;
+
+    private BinaryGraphFile() {
+    }
+
+    /**
+     * A mapped instance: graph plus its designated source and sink.
+     */
+    public static class Instance implements AutoCloseable {
+        public final OffHeapGraph graph;
+        public final int s, t;
+
+        public Instance(OffHeapGraph graph, int s, int t) {
+            this.graph = graph;
+            this.s = s;
+            this.t = t;
+        }
+
+        /** Releases the mapped graph. */
+        @Override
+        public void close() {
+            graph.close();
+        }
+    }
+
+    /**
+     * Writes {@code g} (its original capacities, not its current residual state) together with {@code s} and
+     * {@code t}.
+     *
+     * @see #write(Path, CsrGraph, int, int)
+     */
+    public static void write(Path file, Graph g, int s, int t) throws IOException {
+        write(file, CsrGraph.from(g), s, t);
+    }
+
+    /**
+     * Writes the topology and original capacities of {@code g} together with {@code s} and {@code t}.
+     *
+     * @param file target file (created or truncated)
+     * @param g    graph to store
+     * @param s    source vertex, or -1
+     * @param t    sink vertex, or -1
+     * @throws IOException on write failure
+     * @throws IllegalArgumentException if {@code s} or {@code t} is outside {@code [-1, n)}
+     */
+    public static void write(Path file, CsrGraph g, int s, int t) throws IOException {
+        final int n = g.size();
+        final int m = g.arcCount();
+        if (s < -1 || s >= n || t < -1 || t >= n) {
+            throw new IllegalArgumentException("Source/sink out of range (s=" + s + ", t=" + t + ", n=" + n + ").");
+        }
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+            buf.putLong(MAGIC).putInt(VERSION).putInt(n).putInt(m).putInt(s).putInt(t).putInt(0);
+
+            writeInts(ch, buf, g.head());
+            writeInts(ch, buf, g.to());
+            writeInts(ch, buf, g.rev());
+
+            for (long c : g.origCap()) {
+                if (buf.remaining() < Long.BYTES) drain(ch, buf);
+                buf.putLong(c);
+            }
+            drain(ch, buf);
+        }
+    }
+
+    /**
+     * Maps an instance file. The returned graph is in its initial residual state (zero flow).
+     *
+     * @param file instance file written by {@link #write}
+     * @return mapped instance; close it to free the residual arrays (16 bytes per arc of direct memory)
+     * @throws IOException if the file cannot be read or is not a valid instance file (bad header, s/t out of
+     *                     range, or inconsistent head, to or rev arrays)
+     */
+    public static Instance open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header h = readHeader(ch, file);
+            final int n = h.n, m = h.m;
+
+            OffHeapIntArray head = OffHeapIntArray.wrap(
+                    map(ch, FileChannel.MapMode.READ_ONLY, h.headPos, n + 1, Integer.BYTES), n + 1);
+            OffHeapIntArray to = OffHeapIntArray.wrap(
+                    map(ch, FileChannel.MapMode.READ_ONLY, h.toPos, m, Integer.BYTES), m);
+            OffHeapIntArray rev = OffHeapIntArray.wrap(
+                    map(ch, FileChannel.MapMode.READ_ONLY, h.revPos, m, Integer.BYTES), m);
+            checkTopology(n, m, head, to, rev, file);
+            OffHeapLongArray origCap = OffHeapLongArray.wrap(
+                    map(ch, FileChannel.MapMode.READ_ONLY, h.capPos, m, Long.BYTES), m);
+            OffHeapLongArray cap = OffHeapLongArray.copyOf(origCap);
+            OffHeapLongArray flow = new OffHeapLongArray(m);
+
+            // Mappings stay valid after the channel is closed.
+            return new Instance(new OffHeapGraph(n, head, to, rev, origCap, cap, flow), h.s, h.t);
+        }
+    }
+
+    /**
+     * Validated file header plus the byte offsets of the array sections.
+     */
+    private static final class Header {
+        int n, m, s, t;
+        long headPos, toPos, revPos, capPos;
+    }
+
+    /**
+     * Reads and checks the header: magic, version, {@code n >= 0}, {@code m >= 0}, s and t in {@code [-1, n)},
+     * and a file long enough for all sections.
+     */
+    private static Header readHeader(FileChannel ch, Path file) throws IOException {
+        ByteBuffer hdr = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (hdr.hasRemaining()) {
+            if (ch.read(hdr, hdr.position()) < 0) throw new IOException("Truncated header: " + file);
+        }
+        hdr.flip();
+
+        if (hdr.getLong() != MAGIC) throw new IOException("Not an EGA flow file: " + file);
+        int version = hdr.getInt();
+        if (version != VERSION) throw new IOException("Unsupported format version " + version + ": " + file);
+        Header h = new Header();
+        h.n = hdr.getInt();
+        h.m = hdr.getInt();
+        h.s = hdr.getInt();
+        h.t = hdr.getInt();
+        final int n = h.n, m = h.m;
+        if (n < 0 || n == Integer.MAX_VALUE || m < 0) throw new IOException("Corrupt header: " + file);
+        if (h.s < -1 || h.s >= n || h.t < -1 || h.t >= n) {
+            throw new IOException("Source/sink out of range (s=" + h.s + ", t=" + h.t + ", n=" + n + "): " + file);
+        }
+
+        h.headPos = HEADER_BYTES;
+        h.toPos = h.headPos + padded(4L * (n + 1));
+        h.revPos = h.toPos + padded(4L * m);
+        h.capPos = h.revPos + padded(4L * m);
+        long end = h.capPos + 8L * m;
+        if (ch.size() < end) throw new IOException("Truncated file (" + ch.size() + " < " + end + "): " + file);
+        return h;
+    }
+
+    /**
+     * Checks the mapped arrays with the same rules as {@link Topology#of}: head offsets run monotonically from 0
+     * to m, every arc points to a valid vertex, and its reverse arc is a valid arc of that vertex pointing back.
+     * One sequential pass over the topology; solvers index the arrays without bounds checks of their own.
+     */
+    private static void checkTopology(int n, int m, OffHeapIntArray head, OffHeapIntArray to, OffHeapIntArray rev,
+                                      Path file) throws IOException {
+        if (head.get(0) != 0 || head.get(n) != m) throw new IOException("Invalid head offsets: " + file);
+        for (int u = 0; u < n; u++) {
+            int end = head.get(u + 1);
+            if (head.get(u) > end || end > m) {
+                throw new IOException("Offsets not monotone at vertex " + u + ": " + file);
+            }
+            for (int a = head.get(u); a < end; a++) {
+                int v = to.get(a), r = rev.get(a);
+                if (v < 0 || v >= n) throw new IOException("Arc " + a + " has invalid head " + v + ": " + file);
+                if (r < 0 || r >= m || rev.get(r) != a || to.get(r) != u || r < head.get(v) || r >= head.get(v + 1)) {
+                    throw new IOException("Arc " + a + " has an inconsistent reverse arc: " + file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an instance file fully into a heap {@link CsrGraph} (for small instances and tooling that
+     * needs plain arrays). The sections are copied straight from the mapping into heap arrays; no off-heap
+     * residual state is allocated, and the topology is checked once by {@link Topology#of}.
+     *
+     * @param file instance file written by {@link #write}
+     * @param st   optional output array of length 2 that receives {@code {s, t}}
+     * @return heap CSR graph in its initial residual state
+     * @throws IOException if the file cannot be read or is not a valid instance file
+     */
+    public static CsrGraph readCsr(Path file, int[] st) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header h = readHeader(ch, file);
+            final int n = h.n, m = h.m;
+
+            int[] head = new int[n + 1];
+            int[] to = new int[m];
+            int[] rev = new int[m];
+            long[] origCap = new long[m];
+            readInts(map(ch, FileChannel.MapMode.READ_ONLY, h.headPos, n + 1, Integer.BYTES), head);
+            readInts(map(ch, FileChannel.MapMode.READ_ONLY, h.toPos, m, Integer.BYTES), to);
+            readInts(map(ch, FileChannel.MapMode.READ_ONLY, h.revPos, m, Integer.BYTES), rev);
+            ByteBuffer[] capPages = map(ch, FileChannel.MapMode.READ_ONLY, h.capPos, m, Long.BYTES);
+            for (int p = 0, off = 0; p < capPages.length; p++) {
+                LongBuffer page = capPages[p].asLongBuffer();
+                int len = page.remaining();
+                page.get(origCap, off, len);
+                off += len;
+            }
+
+            if (st != null) {
+                st[0] = h.s;
+                st[1] = h.t;
+            }
+            try {
+                return new CsrGraph(Topology.of(n, head, to, rev, origCap));
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("Corrupt arc data in " + file + ": " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /* ===================== Internal helpers ===================== */
+
+    /** Rounds a byte count up to the next multiple of 8. */
+    private static long padded(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Maps {@code count} elements of {@code elemBytes} each starting at {@code pos}, one mapping per
+     * off-heap page, in little-endian order.
+     */
+    private static ByteBuffer[] map(FileChannel ch, FileChannel.MapMode mode, long pos, int count, int elemBytes)
+            throws IOException {
+        ByteBuffer[] pages = new ByteBuffer[OffHeapLongArray.pageCount(count)];
+        for (int p = 0; p < pages.length; p++) {
+            long first = (long) p << OffHeapLongArray.PAGE_SHIFT;
+            long elems = Math.min(OffHeapLongArray.PAGE_SIZE, count - first);
+            pages[p] = ch.map(mode, pos + first * elemBytes, elems * elemBytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return pages;
+    }
+
+    /** Bulk-copies mapped int pages (as returned by {@link #map}) into {@code dst}. */
+    private static void readInts(ByteBuffer[] pages, int[] dst) {
+        for (int p = 0, off = 0; p < pages.length; p++) {
+            IntBuffer page = pages[p].asIntBuffer();
+            int len = page.remaining();
+            page.get(dst, off, len);
+            off += len;
+        }
+    }
+
+    /** Writes an int array through {@code buf}, then pads the stream to 8 bytes. */
+    private static void writeInts(FileChannel ch, ByteBuffer buf, int[] values) throws IOException {
+        for (int v : values) {
+            if (buf.remaining() < Integer.BYTES) drain(ch, buf);
+            buf.putInt(v);
+        }
+        if ((values.length & 1) != 0) {
+            if (buf.remaining() < Integer.BYTES) drain(ch, buf);
+            buf.putInt(0);
+        }
+    }
+
+    /** Flushes the buffer contents to the channel and clears it. */
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+}
@@ -0,0 +1,247 @@
+package ega.io;
+
+import ega.core.CsrGraph;
+import ega.core.GraphBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streaming reader for max-flow instances in DIMACS format.
+ *
+ * <p>Accepted line types (vertex ids are 1-based in the file and 0-based in the result):
+ * <pre>
+ *   c any comment
+ *   p max NODES ARCS
+ *   n ID s
+ *   n ID t
+ *   a SRC DST CAP
+ * </pre>
+ *
+ * <p>The input is consumed through a fixed-size byte buffer and tokenized by hand (no {@code String}
+ * per line, no regex, no {@code String.split}), so parsing runs close to raw read speed. Arcs are fed into
+ * a {@link GraphBuilder} that is pre-sized from the {@code p} line; the caller decides whether to freeze it
+ * on the heap ({@link Result#toCsrGraph()}) or off-heap ({@link GraphBuilder#freezeOffHeap()}).
+ */
+public final class DimacsReader {
+
+    /** Read buffer size in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private DimacsReader() {
+    }
+
+    /**
+     * Parsed instance: a filled (not yet frozen) builder plus source and sink (0-based).
+     */
+    public static class Result {
+        public final GraphBuilder builder;
+        public final int s, t;
+
+        public Result(GraphBuilder builder, int s, int t) {
+            this.builder = builder;
+            this.s = s;
+            this.t = t;
+        }
+
+        /**
+         * Freezes the builder into a heap CSR graph in its initial residual state.
+         */
+        public CsrGraph toCsrGraph() {
+            return new CsrGraph(builder.freeze());
+        }
+    }
+
+    /**
+     * Reads a DIMACS max-flow file.
+     *
+     * @see #read(InputStream)
+     */
+    public static Result read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads a DIMACS max-flow instance from {@code in} (the stream is not closed).
+     *
+     * @param in input stream positioned at the start of the instance
+     * @return builder with all arcs plus source and sink
+     * @throws IOException on read failure or malformed input (message includes the line number), including a
+     *                     number of arc lines that differs from the problem line, duplicate source or sink
+     *                     lines, and a source equal to the sink
+     */
+    public static Result read(InputStream in) throws IOException {
+        Scanner sc = new Scanner(in);
+
+        GraphBuilder builder = null;
+        int n = -1;
+        int s = -1, t = -1;
+        long declaredArcs = 0, arcLines = 0;
+
+        int c;
+        while ((c = sc.skipBlanks()) != -1) {
+            if (c == '\n') {
+                sc.next();
+                continue;
+            }
+
+            switch (c) {
+                case 'c':
+                    sc.skipLine();
+                    break;
+
+                case 'p': {
+                    sc.next();
+                    if (builder != null) throw sc.error("duplicate problem line");
+                    sc.expectWord("max");
+                    long nodes = sc.readLong();
+                    long arcs = sc.readLong();
+                    if (nodes < 1 || nodes > Integer.MAX_VALUE - 1) throw sc.error("invalid node count " + nodes);
+                    if (arcs < 0 || arcs > Integer.MAX_VALUE / 2) throw sc.error("invalid arc count " + arcs);
+                    n = (int) nodes;
+                    declaredArcs = arcs;
+                    builder = new GraphBuilder(n, (int) arcs);
+                    sc.endLine();
+                    break;
+                }
+
+                case 'n': {
+                    sc.next();
+                    if (builder == null) throw sc.error("node line before problem line");
+                    int id = sc.readVertex(n);
+                    int kind = sc.skipBlanks();
+                    if (kind != 's' && kind != 't') throw sc.error("expected 's' or 't'");
+                    sc.next();
+                    if (kind == 's') {
+                        if (s >= 0) throw sc.error("duplicate source line");
+                        s = id;
+                    } else {
+                        if (t >= 0) throw sc.error("duplicate sink line");
+                        t = id;
+                    }
+                    sc.endLine();
+                    break;
+                }
+
+                case 'a': {
+                    sc.next();
+                    if (builder == null) throw sc.error("arc line before problem line");
+                    if (++arcLines > declaredArcs) {
+                        throw sc.error("more arc lines than the " + declaredArcs + " declared");
+                    }
+                    int u = sc.readVertex(n);
+                    int v = sc.readVertex(n);
+                    long cap = sc.readLong();
+                    builder.addEdge(u, v, cap);
+                    sc.endLine();
+                    break;
+                }
+
+                default:
+                    throw sc.error("unknown line type '" + (char) c + "'");
+            }
+        }
+
+        if (builder == null) throw new IOException("Missing problem line ('p max n m').");
+        if (s < 0 || t < 0) throw new IOException("Missing source or sink designation ('n id s' / 'n id t').");
+        if (s == t) throw new IOException("Source and sink are the same vertex (" + (s + 1) + ").");
+        if (arcLines != declaredArcs) {
+            throw new IOException("Problem line declares " + declaredArcs + " arcs, but " + arcLines + " were read.");
+        }
+        return new Result(builder, s, t);
+    }
+
+    /**
+     * Minimal byte-level tokenizer over a refillable buffer.
+     */
+    private static final class Scanner {
+        private final InputStream in;
+        private final byte[] buf = new byte[BUFFER_SIZE];
+        private int pos, len;
+        private long line = 1;
+
+        Scanner(InputStream in) {
+            this.in = in;
+        }
+
+        /** @return current byte without consuming it, or -1 at end of input */
+        int peek() throws IOException {
+            if (pos == len) {
+                len = in.read(buf, 0, buf.length);
+                pos = 0;
+                if (len <= 0) {
+                    len = 0;
+                    return -1;
+                }
+            }
+            return buf[pos];
+        }
+
+        /** Consumes the current byte. */
+        void next() {
+            if (buf[pos] == '\n') line++;
+            pos++;
+        }
+
+        /** Skips spaces, tabs and carriage returns (not newlines); returns the next byte or -1. */
+        int skipBlanks() throws IOException {
+            int c;
+            while ((c = peek()) == ' ' || c == '\t' || c == '\r') next();
+            return c;
+        }
+
+        /** Skips to and including the next newline. */
+        void skipLine() throws IOException {
+            int c;
+            while ((c = peek()) != -1) {
+                next();
+                if (c == '\n') return;
+            }
+        }
+
+        /** Requires that only blanks remain on the current line, then consumes the newline. */
+        void endLine() throws IOException {
+            int c = skipBlanks();
+            if (c == -1) return;
+            if (c != '\n') throw error("unexpected trailing input");
+            next();
+        }
+
+        /** Reads a non-negative decimal integer. */
+        long readLong() throws IOException {
+            int c = skipBlanks();
+            if (c < '0' || c > '9') throw error("expected a number");
+            long v = 0;
+            while ((c = peek()) >= '0' && c <= '9') {
+                if (v > (Long.MAX_VALUE - (c - '0')) / 10) throw error("number too large");
+                v = v * 10 + (c - '0');
+                next();
+            }
+            return v;
+        }
+
+        /** Reads a 1-based vertex id and returns it 0-based. */
+        int readVertex(int n) throws IOException {
+            long id = readLong();
+            if (id < 1 || id > n) throw error("vertex id " + id + " out of range 1.." + n);
+            return (int) (id - 1);
+        }
+
+        /** Consumes the given word (after blanks). */
+        void expectWord(String word) throws IOException {
+            skipBlanks();
+            for (int i = 0; i < word.length(); i++) {
+                if (peek() != word.charAt(i)) throw error("expected '" + word + "'");
+                next();
+            }
+        }
+
+        IOException error(String msg) {
+            return new IOException("DIMACS line " + line + ": " + msg);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package ega.io;
+
+import ega.core.CsrGraph;
+import ega.core.Edge;
+import ega.core.Graph;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes max-flow instances in DIMACS format (the format read by {@link DimacsReader}).
+ *
+ * <p>Only original edges ({@code origCap > 0}) are written, with their original capacities; the current
+ * residual state is ignored. Vertex ids are written 1-based. Numbers are formatted directly into a byte
+ * buffer, so no intermediate {@code String} is created per line.
+ */
+public final class DimacsWriter {
+
+    /** Output buffer size in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Longest line: "a " + 2 * (10 digits + space) + 19 digits + newline. */
+    private static final int MAX_LINE = 64;
+
+    private DimacsWriter() {
+    }
+
+    /**
+     * Writes {@code g} with source {@code s} and sink {@code t} to {@code file} (created or truncated).
+     */
+    public static void write(Path file, Graph g, int s, int t) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out, g, s, t);
+        }
+    }
+
+    /**
+     * Writes {@code g} with source {@code s} and sink {@code t} to {@code file} (created or truncated).
+     */
+    public static void write(Path file, CsrGraph g, int s, int t) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out, g, s, t);
+        }
+    }
+
+    /**
+     * Writes {@code g} with source {@code s} and sink {@code t} to {@code out} (the stream is flushed, not
+     * closed).
+     */
+    public static void write(OutputStream out, Graph g, int s, int t) throws IOException {
+        final int n = g.size();
+        long m = 0;
+        for (int u = 0; u < n; u++) {
+            for (Edge e : g.adj(u)) {
+                if (e.origCap > 0) m++;
+            }
+        }
+
+        Sink w = new Sink(out);
+        w.header(n, m, s, t);
+        for (int u = 0; u < n; u++) {
+            for (Edge e : g.adj(u)) {
+                if (e.origCap > 0) w.arc(u, e.to, e.origCap);
+            }
+        }
+        w.flush();
+    }
+
+    /**
+     * Writes {@code g} with source {@code s} and sink {@code t} to {@code out} (the stream is flushed, not
+     * closed).
+     */
+    public static void write(OutputStream out, CsrGraph g, int s, int t) throws IOException {
+        final int n = g.size();
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final long[] origCap = g.origCap();
+
+        long m = 0;
+        for (long c : origCap) {
+            if (c > 0) m++;
+        }
+
+        Sink w = new Sink(out);
+        w.header(n, m, s, t);
+        for (int u = 0; u < n; u++) {
+            for (int a = head[u]; a < head[u + 1]; a++) {
+                if (origCap[a] > 0) w.arc(u, to[a], origCap[a]);
+            }
+        }
+        w.flush();
+    }
+
+    /**
+     * Byte buffer with hand-rolled decimal formatting.
+     */
+    private static final class Sink {
+        private final OutputStream out;
+        private final byte[] buf = new byte[BUFFER_SIZE];
+        private final byte[] digits = new byte[20];
+        private int pos;
+
+        Sink(OutputStream out) {
+            this.out = out;
+        }
+
+        void header(int n, long m, int s, int t) throws IOException {
+            ascii("p max ");
+            number(n);
+            put((byte) ' ');
+            number(m);
+            put((byte) '\n');
+            if (s >= 0) {
+                ascii("n ");
+                number(s + 1L);
+                ascii(" s\n");
+            }
+            if (t >= 0) {
+                ascii("n ");
+                number(t + 1L);
+                ascii(" t\n");
+            }
+        }
+
+        void arc(int u, int v, long cap) throws IOException {
+            if (pos > buf.length - MAX_LINE) drain();
+            buf[pos++] = 'a';
+            buf[pos++] = ' ';
+            number(u + 1L);
+            buf[pos++] = ' ';
+            number(v + 1L);
+            buf[pos++] = ' ';
+            number(cap);
+            buf[pos++] = '\n';
+        }
+
+        /** Appends a non-negative number; the caller guarantees room for 19 digits. */
+        private void number(long v) {
+            int k = 0;
+            do {
+                digits[k++] = (byte) ('0' + (v % 10));
+                v /= 10;
+            } while (v != 0);
+            while (k > 0) buf[pos++] = digits[--k];
+        }
+
+        private void ascii(String s) throws IOException {
+            if (pos > buf.length - MAX_LINE) drain();
+            for (int i = 0; i < s.length(); i++) buf[pos++] = (byte) s.charAt(i);
+        }
+
+        private void put(byte b) throws IOException {
+            if (pos == buf.length) drain();
+            buf[pos++] = b;
+        }
+
+        private void drain() throws IOException {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+
+        void flush() throws IOException {
+            drain();
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package ega.testbed;
+
+import ega.algorithms.BoykovKolmogorov;
+import ega.algorithms.Dinic;
+import ega.algorithms.DinicDynamicTrees;
+import ega.algorithms.GoldbergTarjan;
+import ega.algorithms.HochbaumPseudoflow;
+import ega.algorithms.Isap;
+import ega.algorithms.ParallelGoldbergTarjan;
+import ega.core.Graph;
+import ega.generator.GraphGenerator;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Command-line timing benchmark for the max-flow solvers on structured instance families.
+ *
+ * <p>Unlike {@link Main}, which validates correctness on small random instances, this runner measures wall-clock
+ * time on larger instances whose shape stresses different parts of the algorithms:
+ * <ul>
+ *   <li>{@code random}  – planar-ish instances from {@link GraphGenerator} (shallow, small),</li>
+ *   <li>{@code grid}    – side x side grid with {@code side = size/3}, super source on the left column,
+ *                         super sink on the right (diameter ~ side),</li>
+ *   <li>{@code layered} – {@code size} layers of 8 vertices with random arcs between consecutive layers
+ *                         (diameter ~ size, many augmenting paths per phase),</li>
+ *   <li>{@code chain}   – {@code size} unit arcs fanning into one chain of length {@code 4*size}: every
+ *                         augmenting path shares the long suffix, the worst case for per-path DFS.</li>
+ * </ul>
+ *
+ * <p>Each solver runs on fresh clones of the instance: one untimed warm-up run, then {@code reps} timed runs.
+ * The table reports the flow value (all solvers must agree) and the median / minimum time.
+ *
+ * <p>Example usage:
+ * <pre>
+ *   java ega.testbed.Benchmark --family=chain --size=2000 --reps=5
+ *   java ega.testbed.Benchmark --family=all --size=300
+ * </pre>
+ */
+public class Benchmark {
+
+    /**
+     * Minimal functional interface so different solvers can be timed consistently.
+     */
+    private interface Solver {
+        long solve(Graph g, int s, int t);
+    }
+
+    /**
+     * One benchmark instance.
+     */
+    private static class Instance {
+        final String family;
+        final Graph graph;
+        final int s, t;
+
+        Instance(String family, Graph graph, int s, int t) {
+            this.family = family;
+            this.graph = graph;
+            this.s = s;
+            this.t = t;
+        }
+    }
+
+    static class Options {
+        String family = "all";
+        int size = 300;
+        int reps = 5;
+        long seed = 123L;
+        boolean help = false;
+    }
+
+    /** Solvers in report order. */
+    private static final Map<String, Solver> SOLVERS = new LinkedHashMap<>();
+
+    static {
+        SOLVERS.put("Dinic", (g, s, t) -> new Dinic().maxFlow(g, s, t));
+        SOLVERS.put("ISAP", (g, s, t) -> new Isap().maxFlow(g, s, t));
+        SOLVERS.put("Dinic (dynamic trees)", (g, s, t) -> new DinicDynamicTrees().maxFlow(g, s, t));
+        SOLVERS.put("Boykov-Kolmogorov", (g, s, t) -> new BoykovKolmogorov().maxFlow(g, s, t));
+        SOLVERS.put("Goldberg-Tarjan", (g, s, t) -> {
+            GoldbergTarjan gt = new GoldbergTarjan();
+            gt.setSelection(GoldbergTarjan.Selection.HIGHEST_LABEL);
+            gt.setGlobalRelabelFrequency(1.0);
+            gt.setGapHeuristic(true);
+            return gt.maxFlow(g, s, t);
+        });
+        SOLVERS.put("Goldberg-Tarjan (parallel)", (g, s, t) -> new ParallelGoldbergTarjan().maxFlow(g, s, t));
+        SOLVERS.put("Pseudoflow (lowest)", (g, s, t) -> {
+            HochbaumPseudoflow hpf = new HochbaumPseudoflow();
+            hpf.setSelection(HochbaumPseudoflow.Selection.LOWEST_LABEL);
+            return hpf.maxFlow(g, s, t);
+        });
+        SOLVERS.put("Pseudoflow (highest)", (g, s, t) -> new HochbaumPseudoflow().maxFlow(g, s, t));
+    }
+
+    public static void main(String[] args) {
+        Options opt = parseArgs(args);
+        if (opt.help) {
+            printUsage();
+            return;
+        }
+
+        List<String> families = opt.family.equals("all")
+                ? Arrays.asList("random", "grid", "layered", "chain")
+                : List.of(opt.family);
+
+        System.out.println(String.format(Locale.ROOT, "Benchmark: size=%d, reps=%d, seed=%d",
+                opt.size, opt.reps, opt.seed));
+        System.out.println(String.format(Locale.ROOT, "%-8s %8s %9s  %-26s %12s %11s %11s",
+                "family", "n", "m", "solver", "flow", "median ms", "min ms"));
+
+        for (String family : families) {
+            Instance inst = build(family, opt.size, new Random(opt.seed));
+            if (inst == null) {
+                System.err.println("Unknown family: " + family + " (expected: all|random|grid|layered|chain)");
+                return;
+            }
+            run(inst, opt.reps);
+        }
+    }
+
+    /**
+     * Times every solver on {@code inst} and prints one line per solver.
+     */
+    private static void run(Instance inst, int reps) {
+        final int n = inst.graph.size();
+        long m = 0;
+        for (int u = 0; u < n; u++) m += inst.graph.adj(u).size() / 2;
+
+        Long ref = null;
+        for (Map.Entry<String, Solver> entry : SOLVERS.entrySet()) {
+            Solver solver = entry.getValue();
+            long flow = solver.solve(inst.graph.cloneGraph(), inst.s, inst.t); // warm-up
+
+            double[] ms = new double[Math.max(1, reps)];
+            for (int r = 0; r < ms.length; r++) {
+                Graph g = inst.graph.cloneGraph();
+                long t0 = System.nanoTime();
+                solver.solve(g, inst.s, inst.t);
+                ms[r] = (System.nanoTime() - t0) / 1e6;
+            }
+            Arrays.sort(ms);
+
+            String mark = "";
+            if (ref == null) ref = flow;
+            else if (ref != flow) mark = "  [MISMATCH]";
+
+            System.out.println(String.format(Locale.ROOT, "%-8s %8d %9d  %-26s %12d %11.2f %11.2f%s",
+                    inst.family, n, m, entry.getKey(), flow, ms[ms.length / 2], ms[0], mark));
+        }
+    }
+
+    /* ============================= Instance families ============================= */
+
+    private static Instance build(String family, int size, Random rng) {
+        switch (family) {
+            case "random": {
+                GraphGenerator.Result r = GraphGenerator.generate(Math.max(3, Math.min(size, 300)), 1000, rng);
+                return new Instance(family, r.graph, r.s, r.t);
+            }
+            case "grid":
+                return grid(Math.max(2, size / 3), rng);
+            case "layered":
+                return layered(size, rng);
+            case "chain":
+                return chain(size);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * side x side grid with random capacities in [1, 100] in both directions; super source s feeds the left
+     * column and the right column drains into super sink t.
+     */
+    private static Instance grid(int side, Random rng) {
+        final int cells = side * side;
+        final int s = cells, t = cells + 1;
+        Graph g = new Graph(cells + 2);
+
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int u = r * side + c;
+                if (c + 1 < side) {
+                    g.addEdge(u, u + 1, 1 + rng.nextInt(100));
+                    g.addEdge(u + 1, u, 1 + rng.nextInt(100));
+                }
+                if (r + 1 < side) {
+                    g.addEdge(u, u + side, 1 + rng.nextInt(100));
+                    g.addEdge(u + side, u, 1 + rng.nextInt(100));
+                }
+            }
+            g.addEdge(s, r * side, 400);
+            g.addEdge(r * side + side - 1, t, 400);
+        }
+        return new Instance("grid", g, s, t);
+    }
+
+    /**
+     * {@code layers} layers of width 8; every vertex gets 3 random arcs into the next layer.
+     */
+    private static Instance layered(int layers, Random rng) {
+        final int width = 8;
+        final int s = layers * width, t = s + 1;
+        Graph g = new Graph(s + 2);
+
+        for (int i = 0; i < width; i++) {
+            g.addEdge(s, i, 1000);
+            g.addEdge((layers - 1) * width + i, t, 1000);
+        }
+        for (int l = 0; l + 1 < layers; l++) {
+            for (int i = 0; i < width; i++) {
+                for (int k = 0; k < 3; k++) {
+                    g.addEdge(l * width + i, (l + 1) * width + rng.nextInt(width), 1 + rng.nextInt(100));
+                }
+            }
+        }
+        return new Instance("layered", g, s, t);
+    }
+
+    /**
+     * s -> a_i (cap 1) -> c_0 (cap 1) for i &lt; k, then a chain c_0 -> ... -> c_{4k-1} -> t of capacity k.
+     * All k augmenting paths have the same length and share the whole chain.
+     */
+    private static Instance chain(int k) {
+        final int len = 4 * k;
+        final int s = 0, t = 1, fan = 2, chain = 2 + k;
+        Graph g = new Graph(2 + k + len);
+
+        for (int i = 0; i < k; i++) {
+            g.addEdge(s, fan + i, 1);
+            g.addEdge(fan + i, chain, 1);
+        }
+        for (int j = 0; j + 1 < len; j++) {
+            g.addEdge(chain + j, chain + j + 1, k);
+        }
+        g.addEdge(chain + len - 1, t, k);
+        return new Instance("chain", g, s, t);
+    }
+
+    /* ============================= Argument parsing ============================= */
+
+    private static Options parseArgs(String[] args) {
+        Options o = new Options();
+        if (args == null) return o;
+
+        for (String a : args) {
+            if (a == null) continue;
+
+            String s = a.trim();
+            if (s.isEmpty()) continue;
+
+            try {
+                if (s.equals("--help") || s.equals("-h")) {
+                    o.help = true;
+                } else if (s.startsWith("--family=")) {
+                    o.family = s.substring("--family=".length()).trim().toLowerCase(Locale.ROOT);
+                } else if (s.startsWith("--size=")) {
+                    o.size = Integer.parseInt(s.substring("--size=".length()).trim());
+                } else if (s.startsWith("--reps=")) {
+                    o.reps = Integer.parseInt(s.substring("--reps=".length()).trim());
+                } else if (s.startsWith("--seed=")) {
+                    o.seed = Long.parseLong(s.substring("--seed=".length()).trim());
+                } else {
+                    System.err.println("Unknown argument: " + s);
+                    o.help = true;
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Cannot parse numeric argument: " + s);
+                o.help = true;
+            }
+        }
+        return o;
+    }
+
+    private static void printUsage() {
+        String u =
+                "Usage:\n" +
+                        "  java ega.testbed.Benchmark [options]\n\n" +
+                        "Options:\n" +
+                        "  --family=<all|random|grid|layered|chain>   instance family (default: all)\n" +
+                        "  --size=<int>                               family size parameter (default: 300)\n" +
+                        "  --reps=<int>                               timed runs per solver (default: 5)\n" +
+                        "  --seed=<long>                              RNG seed (default: 123)\n" +
+                        "  --help                                     print this help\n";
+        System.out.print(u);
+    }
+}
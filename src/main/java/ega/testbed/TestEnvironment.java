@@ -1,10 +1,11 @@
 package ega.testbed;
 
 import ega.algorithms.Dinic;
+import ega.algorithms.DinicDynamicTrees;
 import ega.algorithms.EdmondsKarp;
 import ega.algorithms.FordFulkerson;
 import ega.algorithms.GoldbergTarjan;
-import ega.core.Edge;
+import ega.core.CsrGraph;
 import ega.core.FlowValidators;
 import ega.core.Graph;
 import ega.generator.GraphGenerator;
@@ -18,7 +19,12 @@ import java.util.function.Consumer;
  * <p>Responsibilities (aligned with typical course-project requirements):
  * <ul>
  *   <li>Generate batches of random max-flow instances (generation is delegated to {@link GraphGenerator}).</li>
- *   <li>For each instance, run multiple max-flow algorithms on independent clones of the same input graph.</li>
+ *   <li>For each instance, run multiple max-flow algorithms on independent clones of the same input graph.
+ *       The instance is frozen once into a {@link CsrGraph}; every run gets its own residual state over the
+ *       shared topology, so a clone costs two primitive array copies instead of one object per arc.
+ *       The same algorithms also run on clones of the pointer-based {@link Graph}, together with their
+ *       optional modes (capacity scaling, bidirectional search, highest-label selection, global relabeling,
+ *       gap heuristic, two-phase min-cut).</li>
  *   <li>Validate each produced flow with:
  *     <ul>
  *       <li>capacity constraints</li>
@@ -27,6 +33,8 @@ import java.util.function.Consumer;
  *     </ul>
  *   </li>
  *   <li>Check whether all algorithms agree on the maximum flow value.</li>
+ *   <li>Run a few fixed edge-case instances with known maximum flow (e.g. capacities of
+ *       {@code Long.MAX_VALUE}) after the random batches.</li>
  *   <li>Perform destructive sanity checks to demonstrate that the validators can detect violations:
  *     <ul>
  *       <li>Sanity A: force a flow overflow on an original edge (flow &gt; origCap).</li>
@@ -116,23 +124,30 @@ public class TestEnvironment {
                 // 1) Generate a random instance.
                 GraphGenerator.Result gen = GraphGenerator.generate(batch.n, batch.maxCap, rng);
                 Graph original = gen.graph;
+                CsrGraph base = CsrGraph.from(original);
                 int s = gen.s, t = gen.t;
 
                 // 2) Run each algorithm on an independent clone and validate its output.
                 Map<String, AlgoReport> reports = new LinkedHashMap<>();
 
-                reports.put("Ford-Fulkerson", runAndValidate("Ford-Fulkerson", original, s, t,
+                reports.put("Ford-Fulkerson", runAndValidate("Ford-Fulkerson", base, s, t,
                         g -> new FordFulkerson().maxFlow(g, s, t)));
 
-                reports.put("Edmonds-Karp", runAndValidate("Edmonds-Karp", original, s, t,
+                reports.put("Edmonds-Karp", runAndValidate("Edmonds-Karp", base, s, t,
                         g -> new EdmondsKarp().maxFlow(g, s, t)));
 
-                reports.put("Dinic", runAndValidate("Dinic", original, s, t,
+                reports.put("Dinic", runAndValidate("Dinic", base, s, t,
                         g -> new Dinic().maxFlow(g, s, t)));
 
-                reports.put("Goldberg-Tarjan", runAndValidate("Goldberg-Tarjan", original, s, t,
+                reports.put("Goldberg-Tarjan", runAndValidate("Goldberg-Tarjan", base, s, t,
                         g -> new GoldbergTarjan().maxFlow(g, s, t)));
 
+                reports.put("GT (HL+GR+gap)", runAndValidate("Goldberg-Tarjan (HL+GR+gap)", base, s, t,
+                        g -> tunedGoldbergTarjan().maxFlow(g, s, t)));
+
+                // Same algorithms on the pointer-based Graph, plus the modes only that representation offers.
+                addGraphRuns(reports, original, s, t);
+
                 // 3) Agreement check (ignore algorithms that crashed).
                 long ref = Long.MIN_VALUE;
                 boolean haveRef = false;
@@ -164,10 +179,14 @@ public class TestEnvironment {
                 line.append(allAgree ? " [OK]" : " [MISMATCH]");
                 log.accept(line.toString());
 
-                printAlgoReport(log, "    ", reports.get("Ford-Fulkerson"));
-                printAlgoReport(log, "    ", reports.get("Edmonds-Karp"));
-                printAlgoReport(log, "    ", reports.get("Dinic"));
-                printAlgoReport(log, "    ", reports.get("Goldberg-Tarjan"));
+                line = new StringBuilder("  maxFlow on Graph FF/EK/Dinic/GT = ");
+                line.append(fmtFlow(reports.get("FF [Graph]"))).append("/")
+                        .append(fmtFlow(reports.get("EK [Graph]"))).append("/")
+                        .append(fmtFlow(reports.get("Dinic [Graph]"))).append("/")
+                        .append(fmtFlow(reports.get("GT [Graph]")));
+                log.accept(line.toString());
+
+                for (AlgoReport r : reports.values()) printAlgoReport(log, "    ", r);
 
                 if (!allAgree) {
                     mismatchCnt++;
@@ -180,7 +199,7 @@ public class TestEnvironment {
 
                 // 5) Destructive sanity checks on a "reasonable solved state".
                 //    We first compute a max-flow using Edmonds–Karp, then intentionally corrupt the result.
-                Graph solved = original.cloneGraph();
+                CsrGraph solved = base.cloneGraph();
                 new EdmondsKarp().maxFlow(solved, s, t);
 
                 boolean detectedA = sanityFlowOverflow(solved, s, t);
@@ -200,9 +219,126 @@ public class TestEnvironment {
                     mismatchCnt, anyFailCnt, sanityOKCnt));
         }
 
+        runEdgeCases(log);
+
         log.accept("=== End of Report ===");
     }
 
+    /**
+     * Goldberg-Tarjan with highest-label selection, global relabeling and the gap heuristic.
+     */
+    private static GoldbergTarjan tunedGoldbergTarjan() {
+        GoldbergTarjan gt = new GoldbergTarjan();
+        gt.setSelection(GoldbergTarjan.Selection.HIGHEST_LABEL);
+        gt.setGlobalRelabelFrequency(1.0);
+        gt.setGapHeuristic(true);
+        return gt;
+    }
+
+    /**
+     * Adds validated runs on clones of the pointer-based {@code original}: the plain {@link Graph} overloads
+     * and every optional mode of FF, EK, Dinic and GT.
+     */
+    private static void addGraphRuns(Map<String, AlgoReport> reports, Graph original, int s, int t) {
+        reports.put("FF [Graph]", runAndValidate("Ford-Fulkerson [Graph]", original, s, t,
+                g -> new FordFulkerson().maxFlow(g, s, t)));
+        reports.put("EK [Graph]", runAndValidate("Edmonds-Karp [Graph]", original, s, t,
+                g -> new EdmondsKarp().maxFlow(g, s, t)));
+        reports.put("Dinic [Graph]", runAndValidate("Dinic [Graph]", original, s, t,
+                g -> new Dinic().maxFlow(g, s, t)));
+        reports.put("GT [Graph]", runAndValidate("Goldberg-Tarjan [Graph]", original, s, t,
+                g -> new GoldbergTarjan().maxFlow(g, s, t)));
+
+        reports.put("FF scaling", runAndValidate("Ford-Fulkerson (scaling) [Graph]", original, s, t, g -> {
+            FordFulkerson ff = new FordFulkerson();
+            ff.setCapacityScaling(true);
+            return ff.maxFlow(g, s, t);
+        }));
+        reports.put("EK scaling", runAndValidate("Edmonds-Karp (scaling) [Graph]", original, s, t, g -> {
+            EdmondsKarp ek = new EdmondsKarp();
+            ek.setCapacityScaling(true);
+            return ek.maxFlow(g, s, t);
+        }));
+        reports.put("EK bidirectional", runAndValidate("Edmonds-Karp (bidirectional) [Graph]", original, s, t, g -> {
+            EdmondsKarp ek = new EdmondsKarp();
+            ek.setBidirectionalSearch(true);
+            return ek.maxFlow(g, s, t);
+        }));
+        reports.put("Dinic scaling", runAndValidate("Dinic (scaling) [Graph]", original, s, t, g -> {
+            Dinic dinic = new Dinic();
+            dinic.setCapacityScaling(true);
+            return dinic.maxFlow(g, s, t);
+        }));
+        reports.put("Dinic bidirectional", runAndValidate("Dinic (bidirectional) [Graph]", original, s, t, g -> {
+            Dinic dinic = new Dinic();
+            dinic.setBidirectionalSearch(true);
+            return dinic.maxFlow(g, s, t);
+        }));
+        reports.put("GT highest-label", runAndValidate("Goldberg-Tarjan (highest-label) [Graph]", original, s, t, g -> {
+            GoldbergTarjan gt = new GoldbergTarjan();
+            gt.setSelection(GoldbergTarjan.Selection.HIGHEST_LABEL);
+            return gt.maxFlow(g, s, t);
+        }));
+        reports.put("GT global relabel", runAndValidate("Goldberg-Tarjan (global relabel) [Graph]", original, s, t,
+                g -> {
+                    GoldbergTarjan gt = new GoldbergTarjan();
+                    gt.setGlobalRelabelFrequency(1.0);
+                    return gt.maxFlow(g, s, t);
+                }));
+        reports.put("GT gap", runAndValidate("Goldberg-Tarjan (gap) [Graph]", original, s, t, g -> {
+            GoldbergTarjan gt = new GoldbergTarjan();
+            gt.setGapHeuristic(true);
+            return gt.maxFlow(g, s, t);
+        }));
+        reports.put("GT min-cut", runAndValidate("Goldberg-Tarjan (two-phase min-cut) [Graph]", original, s, t,
+                g -> tunedGoldbergTarjan().minCut(g, s, t, true).value));
+    }
+
+    /* ===================== Fixed edge cases ===================== */
+
+    /**
+     * Runs the fixed edge-case instances on the pointer-based {@link Graph} solvers and checks the flow value
+     * against the known maximum.
+     */
+    private static void runEdgeCases(Consumer<String> log) {
+        log.accept("");
+        log.accept(">>> Edge cases");
+        log.accept("------------------------------------------");
+
+        // Long.MAX_VALUE arcs 0->1->2 in front of a bottleneck 2->3 (7), plus a short cut 0->2 (3): max flow 7.
+        // Push-relabel is left out: its excess sums overflow with such capacities.
+        final long max = Long.MAX_VALUE;
+        Graph g = new Graph(4);
+        g.addEdge(0, 1, max);
+        g.addEdge(1, 2, max);
+        g.addEdge(2, 3, 7);
+        g.addEdge(0, 2, 3);
+        runEdgeCase(log, "Long.MAX_VALUE capacities", g, 0, 3, 7);
+    }
+
+    private static void runEdgeCase(Consumer<String> log, String title, Graph g, int s, int t, long expected) {
+        List<AlgoReport> reports = new ArrayList<>();
+        reports.add(runAndValidate("Ford-Fulkerson", g, s, t, c -> new FordFulkerson().maxFlow(c, s, t)));
+        reports.add(runAndValidate("Edmonds-Karp", g, s, t, c -> new EdmondsKarp().maxFlow(c, s, t)));
+        reports.add(runAndValidate("Dinic", g, s, t, c -> new Dinic().maxFlow(c, s, t)));
+        reports.add(runAndValidate("Dinic (dynamic trees)", g, s, t,
+                c -> new DinicDynamicTrees().maxFlow(c, s, t)));
+
+        boolean allOK = reports.stream().allMatch(
+                r -> r.ranOK && r.maxFlow == expected && r.capacityOK && r.conservationOK && r.saturatedCutOK);
+        log.accept(title + " (expected maxFlow=" + expected + "):");
+
+        StringBuilder line = new StringBuilder("  maxFlow FF/EK/Dinic/Dinic-DT = ");
+        for (int i = 0; i < reports.size(); i++) {
+            if (i > 0) line.append("/");
+            line.append(fmtFlow(reports.get(i)));
+        }
+        line.append(allOK ? " [OK]" : " [FAIL]");
+        log.accept(line.toString());
+
+        for (AlgoReport r : reports) printAlgoReport(log, "    ", r);
+    }
+
     /* ===================== Convenience wrappers (kept for compatibility) ===================== */
 
     /**
@@ -241,13 +377,44 @@ public class TestEnvironment {
      * Minimal functional interface so we can wrap different solvers consistently.
      */
     private interface Solver {
+        long solve(CsrGraph g) throws Exception;
+    }
+
+    /**
+     * {@link Solver} for the pointer-based {@link Graph} overloads.
+     */
+    private interface GraphSolver {
         long solve(Graph g) throws Exception;
     }
 
     /**
      * Clone -> solve -> validate, with exception containment.
      */
-    private static AlgoReport runAndValidate(String name, Graph base, int s, int t, Solver solver) {
+    private static AlgoReport runAndValidate(String name, CsrGraph base, int s, int t, Solver solver) {
+        AlgoReport r = new AlgoReport();
+        r.algoname = name;
+
+        try {
+            CsrGraph g = base.cloneGraph();
+            long flow = solver.solve(g);
+
+            r.maxFlow = flow;
+            r.capacityOK = FlowValidators.capacityConstraints(g);
+            r.conservationOK = FlowValidators.flowConservation(g, s, t);
+            r.saturatedCutOK = FlowValidators.saturatedCutExists(g, s, t);
+            r.ranOK = true;
+
+        } catch (Throwable ex) {
+            markFailed(r, ex);
+        }
+
+        return r;
+    }
+
+    /**
+     * {@link #runAndValidate(String, CsrGraph, int, int, Solver)} on a clone of a pointer-based {@link Graph}.
+     */
+    private static AlgoReport runAndValidate(String name, Graph base, int s, int t, GraphSolver solver) {
         AlgoReport r = new AlgoReport();
         r.algoname = name;
 
@@ -262,19 +429,23 @@ public class TestEnvironment {
             r.ranOK = true;
 
         } catch (Throwable ex) {
-            r.ranOK = false;
-            r.errorMessage = ex.getClass().getSimpleName() + ": " + ex.getMessage();
-
-            // If the solver crashed, mark checks as false to avoid implying correctness.
-            r.capacityOK = false;
-            r.conservationOK = false;
-            r.saturatedCutOK = false;
-            r.maxFlow = Long.MIN_VALUE;
+            markFailed(r, ex);
         }
 
         return r;
     }
 
+    private static void markFailed(AlgoReport r, Throwable ex) {
+        r.ranOK = false;
+        r.errorMessage = ex.getClass().getSimpleName() + ": " + ex.getMessage();
+
+        // If the solver crashed, mark checks as false to avoid implying correctness.
+        r.capacityOK = false;
+        r.conservationOK = false;
+        r.saturatedCutOK = false;
+        r.maxFlow = Long.MIN_VALUE;
+    }
+
     /**
      * Prints a per-algorithm summary (with indentation).
      */
@@ -300,15 +471,14 @@ public class TestEnvironment {
      *
      * @return true iff at least one validator detects a violation
      */
-    private static boolean sanityFlowOverflow(Graph g, int s, int t) {
-        // Corrupt the first original forward edge we encounter.
-        outer:
-        for (int u = 0; u < g.size(); u++) {
-            for (Edge e : g.adj(u)) {
-                if (e.origCap > 0) {
-                    e.flow = e.origCap + 123;
-                    break outer;
-                }
+    private static boolean sanityFlowOverflow(CsrGraph g, int s, int t) {
+        // Corrupt the first original forward edge we encounter (arcs are stored grouped by vertex in order).
+        final long[] origCap = g.origCap();
+        final long[] flow = g.flow();
+        for (int a = 0; a < origCap.length; a++) {
+            if (origCap[a] > 0) {
+                flow[a] = origCap[a] + 123;
+                break;
             }
         }
 
@@ -331,24 +501,29 @@ public class TestEnvironment {
      *       residual capacity to 1, which invalidates the saturated-cut property.</li>
      * </ol>
      *
-     * <p>Expected: {@link FlowValidators#saturatedCutExists(Graph, int, int)} returns false.
+     * <p>Expected: {@link FlowValidators#saturatedCutExists(CsrGraph, int, int)} returns false.
      *
      * @return true iff the cut validator detects the injected violation (or any validator fails)
      */
-    private static boolean sanityBreakSaturatedCut(Graph g, int s, int t) {
+    private static boolean sanityBreakSaturatedCut(CsrGraph g, int s, int t) {
         boolean[] inS = residualReachable(g, s);
 
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final long[] origCap = g.origCap();
+        final long[] cap = g.cap();
+
         // Prefer: pick a saturated original edge crossing S -> T and set residual cap to 1.
         boolean changed = false;
         for (int u = 0; u < g.size() && !changed; u++) {
             if (!inS[u]) continue;
-            for (Edge e : g.adj(u)) {
-                int v = e.to;
-                if (e.origCap <= 0) continue; // only original directed edges
+            for (int a = head[u]; a < head[u + 1]; a++) {
+                int v = to[a];
+                if (origCap[a] <= 0) continue; // only original directed edges
                 if (v < 0 || v >= g.size()) continue;
-                if (inS[v]) continue;         // must cross the cut
-                if (e.cap == 0) {
-                    e.cap = 1;
+                if (inS[v]) continue;          // must cross the cut
+                if (cap[a] == 0) {
+                    cap[a] = 1;
                     changed = true;
                     break;
                 }
@@ -359,11 +534,10 @@ public class TestEnvironment {
         if (!changed) {
             for (int u = 0; u < g.size() && !changed; u++) {
                 if (!inS[u]) continue;
-                for (Edge e : g.adj(u)) {
-                    if (e.origCap <= 0) continue;
-                    int v = e.to;
-                    if (!inS[v]) {
-                        e.cap = Math.max(1, (int) e.cap + 1);
+                for (int a = head[u]; a < head[u + 1]; a++) {
+                    if (origCap[a] <= 0) continue;
+                    if (!inS[to[a]]) {
+                        cap[a] = Math.max(1, (int) cap[a] + 1);
                         changed = true;
                         break;
                     }
@@ -386,18 +560,23 @@ public class TestEnvironment {
      * @param s source
      * @return vis[v] == true iff v is reachable from s in the residual network
      */
-    private static boolean[] residualReachable(Graph g, int s) {
+    private static boolean[] residualReachable(CsrGraph g, int s) {
+        final int[] head = g.head();
+        final int[] to = g.to();
+        final long[] cap = g.cap();
         boolean[] vis = new boolean[g.size()];
-        ArrayDeque<Integer> q = new ArrayDeque<>();
-        q.add(s);
+        int[] q = new int[g.size()];
+        int qh = 0, qt = 0;
+        q[qt++] = s;
         vis[s] = true;
 
-        while (!q.isEmpty()) {
-            int u = q.poll();
-            for (Edge e : g.adj(u)) {
-                if (e.cap > 0 && !vis[e.to]) {
-                    vis[e.to] = true;
-                    q.add(e.to);
+        while (qh < qt) {
+            int u = q[qh++];
+            for (int a = head[u]; a < head[u + 1]; a++) {
+                int v = to[a];
+                if (cap[a] > 0 && !vis[v]) {
+                    vis[v] = true;
+                    q[qt++] = v;
                 }
             }
         }